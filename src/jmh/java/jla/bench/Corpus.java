@@ -0,0 +1,103 @@
+package jla.bench;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jla.analyzer.ClassHolderFactory;
+import jla.main.Analyzer;
+import jla.resolve.SootSceneResolver;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import soot.ClassMember;
+import soot.SootClass;
+
+/**
+ * Fixed corpus of JDK classes that are loaded into the Soot Scene once per
+ * benchmark trial so the benchmarks measure only the code under test.
+ *
+ * @author Timothy Hoffman
+ */
+@State(Scope.Benchmark)
+public class Corpus {
+
+    /**
+     * NOTE: a mix of small and large classes, interfaces, and classes with
+     * many fields, constructors, overloads, generics, and varargs.
+     */
+    static final String[] CLASS_NAMES = {
+        "java.lang.Object", "java.lang.String", "java.lang.StringBuilder",
+        "java.lang.Integer", "java.lang.Math", "java.lang.Thread",
+        "java.lang.Class", "java.lang.reflect.Method", "java.util.ArrayList",
+        "java.util.HashMap", "java.util.TreeMap", "java.util.LinkedList",
+        "java.util.Collections", "java.util.Arrays", "java.util.Formatter",
+        "java.util.concurrent.ConcurrentHashMap",
+        "java.util.concurrent.ThreadPoolExecutor",
+        "java.util.stream.Collectors", "java.util.regex.Pattern",
+        "java.io.File", "java.io.PrintStream", "java.io.ObjectInputStream",
+        "java.nio.ByteBuffer", "java.nio.file.Files", "java.net.URI",
+        "java.math.BigInteger", "java.math.BigDecimal",
+        "java.text.SimpleDateFormat", "java.util.zip.ZipFile",
+        "java.security.MessageDigest",
+    };
+
+    /**
+     * The classes in the corpus.
+     */
+    public List<SootClass> classes;
+
+    /**
+     * All fields and methods of the classes in the corpus.
+     */
+    public List<ClassMember> members;
+
+    @Setup
+    public void load() {
+        //NOTE: the default classpath of Soot on Java 8 is incomplete but Soot
+        //  also rejects boot classpath entries that do not exist
+        ArrayList<String> boot = new ArrayList<>();
+        for (String path : ClassHolderFactory.Path.BOOT) {
+            if (new File(path).exists()) {
+                boot.add(path);
+            }
+        }
+        Analyzer.setClasspath(boot.isEmpty() ? null : boot);
+        ArrayList<SootClass> c = new ArrayList<>();
+        ArrayList<ClassMember> m = new ArrayList<>();
+        for (String name : CLASS_NAMES) {
+            SootClass clazz = SootSceneResolver.INST.resolve(name);
+            c.add(clazz);
+            m.addAll(clazz.getFields());
+            m.addAll(clazz.getMethods());
+        }
+        classes = Collections.unmodifiableList(c);
+        members = Collections.unmodifiableList(m);
+    }
+}
@@ -0,0 +1,120 @@
+package jla.bench;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import jla.filter.BasicFilters;
+import jla.filter.ClassMemberFilters;
+import jla.filter.IFilter;
+import jla.filter.MemberFilterExpression;
+import org.openjdk.jmh.annotations.*;
+import soot.ClassMember;
+
+/**
+ * Applies the {@link ClassMemberFilters} alone and combined via
+ * {@link BasicFilters#and} and {@link BasicFilters#or} (and the same
+ * combinations compiled by {@link MemberFilterExpression}) to every member in
+ * the {@link Corpus}.
+ *
+ * @author Timothy Hoffman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterBenchmark {
+
+    @Param({"ALL", "FIELD", "METHOD", "INIT", "CLINIT", "EXECUTABLE", "NATIVE", "VISIBLE"})
+    public ClassMemberFilters filter;
+
+    private IFilter<ClassMember> andChain;
+    private IFilter<ClassMember> orChain;
+    private IFilter<ClassMember> compiledAnd;
+    private IFilter<ClassMember> compiledOr;
+
+    @Setup
+    public void setup() {
+        //i.e. VISIBLE && EXECUTABLE && !NATIVE && !CLINIT
+        andChain = BasicFilters.and(ClassMemberFilters.VISIBLE,
+                BasicFilters.and(ClassMemberFilters.EXECUTABLE,
+                        BasicFilters.and(not(ClassMemberFilters.NATIVE), not(ClassMemberFilters.CLINIT))));
+        //i.e. NATIVE || INIT || CLINIT || FIELD
+        orChain = BasicFilters.or(ClassMemberFilters.NATIVE,
+                BasicFilters.or(ClassMemberFilters.INIT,
+                        BasicFilters.or(ClassMemberFilters.CLINIT, ClassMemberFilters.FIELD)));
+        compiledAnd = MemberFilterExpression.compile("visible && executable && !native && !clinit");
+        compiledOr = MemberFilterExpression.compile("native || init || clinit || field");
+    }
+
+    @Benchmark
+    public int single(Corpus corpus) {
+        return count(corpus, filter);
+    }
+
+    @Benchmark
+    public int andChain(Corpus corpus) {
+        return count(corpus, andChain);
+    }
+
+    @Benchmark
+    public int orChain(Corpus corpus) {
+        return count(corpus, orChain);
+    }
+
+    @Benchmark
+    public int compiledAnd(Corpus corpus) {
+        return count(corpus, compiledAnd);
+    }
+
+    @Benchmark
+    public int compiledOr(Corpus corpus) {
+        return count(corpus, compiledOr);
+    }
+
+    private static int count(Corpus corpus, IFilter<ClassMember> f) {
+        int n = 0;
+        for (ClassMember m : corpus.members) {
+            if (f.accept(m)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private static IFilter<ClassMember> not(IFilter<ClassMember> f) {
+        return new IFilter<ClassMember>() {
+            @Override
+            public boolean accept(ClassMember m) {
+                return !f.accept(m);
+            }
+
+            @Override
+            public String name() {
+                return "NOT_" + f.name();
+            }
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package jla.bench;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import jla.format.FormatHelpers.Soot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import soot.ClassMember;
+import soot.SootClass;
+
+/**
+ * Applies each {@link Soot} helper to every class or member in the
+ * {@link Corpus}.
+ *
+ * @author Timothy Hoffman
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormatHelpersBenchmark {
+
+    @Benchmark
+    public void classModifiers(Corpus corpus, Blackhole bh) {
+        for (SootClass c : corpus.classes) {
+            bh.consume(Soot.getAccessModifier(c));
+            bh.consume(Soot.getNonAccessModifiers(c));
+        }
+    }
+
+    @Benchmark
+    public void className(Corpus corpus, Blackhole bh) {
+        for (SootClass c : corpus.classes) {
+            bh.consume(Soot.getClassName(c));
+        }
+    }
+
+    @Benchmark
+    public void memberModifiers(Corpus corpus, Blackhole bh) {
+        for (ClassMember m : corpus.members) {
+            bh.consume(Soot.getAccessModifier(m));
+            bh.consume(Soot.getNonAccessModifiers(m));
+        }
+    }
+
+    @Benchmark
+    public void memberName(Corpus corpus, Blackhole bh) {
+        for (ClassMember m : corpus.members) {
+            bh.consume(Soot.getMemberName(m));
+        }
+    }
+
+    @Benchmark
+    public void returnType(Corpus corpus, Blackhole bh) {
+        for (ClassMember m : corpus.members) {
+            bh.consume(Soot.getReturnType(m));
+        }
+    }
+
+    @Benchmark
+    public void parameterList(Corpus corpus, Blackhole bh) {
+        for (ClassMember m : corpus.members) {
+            bh.consume(Soot.getParameterList(m));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package jla.bench;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import jla.filter.ClassMemberFilters;
+import jla.format.IClassFormatter;
+import jla.format.impl.CSVDetailFormatter;
+import jla.format.impl.CSVFormatter;
+import jla.format.impl.ClassOnlyFormatter;
+import jla.format.impl.PscoutFormatter;
+import jla.main.Analyzer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import soot.SootClass;
+
+/**
+ * Formats every class in the {@link Corpus} with each
+ * {@link IClassFormatter} implementation.
+ *
+ * @author Timothy Hoffman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormatterBenchmark {
+
+    @Param({"MEMBER_PSCOUT", "MEMBER_CSV", "MEMBER_CSV_DETAIL", "CLASS_ONLY"})
+    public Analyzer.OutputType type;
+
+    @Param({"ALL", "VISIBLE"})
+    public ClassMemberFilters filter;
+
+    private IClassFormatter formatter;
+
+    @Setup
+    public void setup() {
+        switch (type) {
+            case MEMBER_PSCOUT:
+                formatter = new PscoutFormatter(filter);
+                break;
+            case MEMBER_CSV:
+                formatter = new CSVFormatter(filter);
+                break;
+            case MEMBER_CSV_DETAIL:
+                formatter = new CSVDetailFormatter(filter);
+                break;
+            case CLASS_ONLY:
+                formatter = new ClassOnlyFormatter(filter);
+                break;
+            default:
+                throw new IllegalArgumentException("Not yet supported: " + type);
+        }
+    }
+
+    @Benchmark
+    public void format(Corpus corpus, Blackhole bh) {
+        for (SootClass c : corpus.classes) {
+            bh.consume(formatter.format(c));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package jla.bench;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import jla.filter.IFilter;
+import jla.util.FilteredIterator;
+import jla.util.SequentialIterator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Iterates class-name-like Strings via {@link FilteredIterator} and
+ * {@link SequentialIterator}.
+ *
+ * @author Timothy Hoffman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IteratorBenchmark {
+
+    private static final IFilter<String> JAVA_UTIL = new IFilter<String>() {
+        @Override
+        public boolean accept(String className) {
+            return className.startsWith("java.util.");
+        }
+
+        @Override
+        public String name() {
+            return "JAVA_UTIL";
+        }
+    };
+
+    @Param({"10", "1000"})
+    public int lists;
+
+    private List<List<String>> names;
+    private List<String> flat;
+
+    @Setup
+    public void setup() {
+        final int total = 100000;
+        final String[] packages = {"java.lang.", "java.util.", "java.io.", "javax.swing."};
+        names = new ArrayList<>(lists);
+        flat = new ArrayList<>(total);
+        for (int i = 0; i < lists; i++) {
+            List<String> list = new ArrayList<>(total / lists);
+            for (int j = 0; j < total / lists; j++) {
+                String name = packages[(i + j) % packages.length] + "C" + i + '_' + j;
+                list.add(name);
+                flat.add(name);
+            }
+            names.add(list);
+        }
+    }
+
+    @Benchmark
+    public void sequential(Blackhole bh) {
+        ArrayList<Iterator<? extends String>> its = new ArrayList<>(names.size());
+        for (List<String> list : names) {
+            its.add(list.iterator());
+        }
+        for (Iterator<String> it = new SequentialIterator<>(its); it.hasNext();) {
+            bh.consume(it.next());
+        }
+    }
+
+    @Benchmark
+    public void filtered(Blackhole bh) {
+        for (Iterator<String> it = new FilteredIterator<>(flat.iterator(), JAVA_UTIL); it.hasNext();) {
+            bh.consume(it.next());
+        }
+    }
+
+    @Benchmark
+    public void sequentialFiltered(Blackhole bh) {
+        ArrayList<Iterator<? extends String>> its = new ArrayList<>(names.size());
+        for (List<String> list : names) {
+            its.add(list.iterator());
+        }
+        for (Iterator<String> it = new FilteredIterator<>(new SequentialIterator<>(its), JAVA_UTIL); it.hasNext();) {
+            bh.consume(it.next());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package jla.bench;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import jla.filter.IFilter;
+import jla.filter.NameFilters;
+import jla.filter.PrefixTrieFilter;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Checks class-name-like Strings against package prefixes via
+ * {@link NameFilters#JDK}, a loop of {@link String#startsWith}, and
+ * {@link PrefixTrieFilter}.
+ *
+ * @author Timothy Hoffman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NameFilterBenchmark {
+
+    private static final String[] JDK_PREFIXES = {"java.", "javax.", "org.ietf.jgss.", "org.omg.", "org.w3c.dom.", "org.xml.sax."};
+
+    /**
+     * Number of prefixes in addition to {@link #JDK_PREFIXES}.
+     */
+    @Param({"0", "500"})
+    public int vendors;
+
+    private List<String> names;
+    private String[] prefixes;
+    private IFilter<String> trie;
+
+    @Setup
+    public void setup() {
+        List<String> rules = new ArrayList<>();
+        for (String p : JDK_PREFIXES) {
+            rules.add(p);
+        }
+        for (int i = 0; i < vendors; i++) {
+            rules.add("com.vendor" + i + ".shaded.");
+        }
+        prefixes = rules.toArray(new String[rules.size()]);
+        trie = new PrefixTrieFilter("BENCH", rules);
+
+        final String[] packages = {"java.lang.", "java.util.concurrent.", "javax.swing.", "org.w3c.dom.",
+            "sun.misc.", "com.vendor7.shaded.", "com.vendor123.internal.", "org.example."};
+        names = new ArrayList<>(100000);
+        for (int i = 0; i < 100000; i++) {
+            names.add(packages[i % packages.length] + "Class" + i);
+        }
+    }
+
+    @Benchmark
+    public int jdk() {
+        return count(NameFilters.JDK);
+    }
+
+    @Benchmark
+    public int startsWith() {
+        int n = 0;
+        for (String name : names) {
+            for (String p : prefixes) {
+                if (name.startsWith(p)) {
+                    n++;
+                    break;
+                }
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    public int trie() {
+        return count(trie);
+    }
+
+    private int count(IFilter<String> f) {
+        int n = 0;
+        for (String name : names) {
+            if (f.accept(name)) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
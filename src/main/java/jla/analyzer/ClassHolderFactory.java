@@ -27,12 +27,21 @@ package jla.analyzer;
  */
 
 import java.io.*;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.util.*;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import jla.filter.ClassMemberFilters;
 import jla.filter.IFilter;
 import jla.main.Analyzer;
+import jla.resolve.ClassFileReader;
 import jla.util.SequentialIterator;
+import jla.util.SequentialSpliterator;
+import jla.util.ClassNameArena;
+import jla.util.MappedLineFile;
+import jla.util.ZipCentralDirectory;
 
 /**
  * Factory for creating instances of {@link IClassHolder}.
@@ -41,13 +50,37 @@ import jla.util.SequentialIterator;
  */
 public final class ClassHolderFactory {
 
+    /**
+     * Buffer size for reading the header of a class file.
+     */
+    private static final int CLASS_HEADER_BUFFER = 4096;
+
+    /**
+     * Average size of a class in a jar file used to estimate the number of
+     * classes in a jar without opening it.
+     */
+    private static final long ESTIMATED_BYTES_PER_CLASS = 2048;
+
+    /**
+     * Estimated number of classes in a directory that has not been listed.
+     */
+    private static final long ESTIMATED_CLASSES_PER_DIRECTORY = 1024;
+
+    /**
+     * Characteristics of the {@link Spliterator Spliterators} of class names.
+     */
+    private static final int CLASS_NAME_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL;
+
+    private static volatile ClassNameIndex INDEX = null;
+
     /**
      *
      */
     public static class Path {
 
         /**
-         *
+         * NOTE: empty on Java 9+ where the boot classes are in the runtime
+         * image instead (see {@link #classesFromRuntimeImage(IFilter)}).
          */
         public static final List<String> BOOT = fromProperty("sun.boot.class.path");
 
@@ -59,10 +92,15 @@ public final class ClassHolderFactory {
         /**
          * @param name
          *
-         * @return
+         * @return the paths in the given system property (empty if the
+         *         property is not set)
          */
         public static List<String> fromProperty(String name) {
-            String[] paths = System.getProperty(name).split(File.pathSeparator);
+            String value = System.getProperty(name);
+            if (value == null) {
+                return Collections.emptyList();
+            }
+            String[] paths = value.split(File.pathSeparator);
             return Collections.unmodifiableList(Arrays.asList(paths));
         }
 
@@ -74,13 +112,15 @@ public final class ClassHolderFactory {
 
         private final Iterable<String> paths;
         private final IFilter<String> classNameFilter;
+        private final boolean visibleOnly;
 
-        public PathClassHolder(Iterable<String> paths, IFilter<String> classNameFilter) {
+        public PathClassHolder(Iterable<String> paths, IFilter<String> classNameFilter, boolean visibleOnly) {
             if (paths == null || classNameFilter == null) {
                 throw new IllegalArgumentException("Parameters cannot be null!");
             }
             this.paths = paths;
             this.classNameFilter = classNameFilter;
+            this.visibleOnly = visibleOnly;
         }
 
         @Override
@@ -104,11 +144,7 @@ public final class ClassHolderFactory {
 
                         @Override
                         public Iterator<String> next() {
-                            String nextPath = pathItr.next();
-                            if (Analyzer.DEBUG) {
-                                System.out.println("Opening: " + nextPath);
-                            }
-                            return getClassesFrom(nextPath, classNameFilter).iterator();
+                            return open(pathItr.next());
                         }
                     };
                 }
@@ -116,31 +152,70 @@ public final class ClassHolderFactory {
         }
 
         /**
-         * @param path
-         *
-         * @return {@link List} of names of all classes found in the Zip, Jar,
-         *         or directory with the given name (if it exists)
+         * Splits by path first and then by chunks of the classes within a
+         * jar (directories are split in batches).
          */
-        private static List<String> getClassesFrom(String path, IFilter<String> classNameFilter) {
-            ArrayList<String> retVal = new ArrayList<>();
+        @Override
+        public Spliterator<String> spliterator() {
+            ArrayList<String> list = new ArrayList<>();
+            for (String path : paths) {
+                list.add(path);
+            }
+            return new SequentialSpliterator<String, String>(list, path -> {
+                File f = new File(path);
+                if (f.isDirectory()) {
+                    return Spliterators.spliteratorUnknownSize(new DirectoryClassIterator(f.toPath(), classNameFilter, visibleOnly),
+                            CLASS_NAME_CHARACTERISTICS);
+                } else {
+                    return getClassesFrom(f, classNameFilter, visibleOnly).spliterator();
+                }
+            }, path -> {
+                File f = new File(path);
+                return f.isFile() ? Math.max(1, f.length() / ESTIMATED_BYTES_PER_CLASS)
+                        : f.isDirectory() ? ESTIMATED_CLASSES_PER_DIRECTORY : 0;
+            }, CLASS_NAME_CHARACTERISTICS);
+        }
+
+        private Iterator<String> open(String path) {
+            if (Analyzer.DEBUG) {
+                System.out.println("Opening: " + path);
+            }
             File f = new File(path);
             if (f.isDirectory()) {
-                System.err.println("[PathClassHolder] did not traverse directory: " + path);
-//            f.list();//TODO: they will likely be nested within folders so traversal is a bit complex
-            } else if (f.isFile()) {
-                try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(new FileInputStream(f)))) {
-                    for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
-                        if (!entry.isDirectory() && entry.getName().endsWith(".class")) {
-                            String className = entry.getName().replace('/', '.'); // including ".class"
-                            className = className.substring(0, className.length() - ".class".length());
+                return new DirectoryClassIterator(f.toPath(), classNameFilter, visibleOnly);
+            } else {
+                return getClassesFrom(f, classNameFilter, visibleOnly).iterator();
+            }
+        }
+
+        /**
+         * @param f
+         *
+         * @return {@link List} of names of all classes found in the Zip or Jar
+         *         file (if it exists)
+         */
+        private static List<String> getClassesFrom(File f, IFilter<String> classNameFilter, boolean visibleOnly) {
+            ClassNameArena retVal = new ClassNameArena();
+            if (f.isFile()) {
+                try {
+                    ClassNameIndex index = INDEX;
+                    //NOTE: the index only holds names so the jar must be read
+                    //  anyway to obtain the access flags of the classes
+                    if (index == null || visibleOnly) {
+                        try (ZipCentralDirectory zip = ZipCentralDirectory.open(f.toPath())) {
+                            retVal = readClassNames(zip, classNameFilter, visibleOnly);
+                        }
+                    } else {
+                        for (String className : index.classesIn(f)) {
                             if (classNameFilter.accept(className)) {
-                                retVal.add(className);
+                                retVal.append(className);
                             }
                         }
+                        retVal.trimToSize();
                     }
                 } catch (IOException ex) {
                     //ignore if unable to find/read class path item
-                    System.err.println("[PathClassHolder] while processing " + path + ": " + ex);
+                    System.err.println("[PathClassHolder] while processing " + f + ": " + ex);
                 }
             } else {
                 //NOTE: it's possible the classpath could contain paths that don't exist
@@ -150,6 +225,185 @@ public final class ClassHolderFactory {
 
     }
 
+    private static class RuntimeImageClassHolder implements IClassHolder {
+
+        private final IFilter<String> classNameFilter;
+        private final boolean visibleOnly;
+
+        public RuntimeImageClassHolder(IFilter<String> classNameFilter, boolean visibleOnly) {
+            if (classNameFilter == null) {
+                throw new IllegalArgumentException("Parameters cannot be null!");
+            }
+            this.classNameFilter = classNameFilter;
+            this.visibleOnly = visibleOnly;
+        }
+
+        @Override
+        public String name() {
+            return "JRT-" + classNameFilter.name();
+        }
+
+        /**
+         * NOTE: each module is only listed when reached since a
+         * {@link DirectoryClassIterator} starts listing its module as soon as
+         * it is created.
+         */
+        @Override
+        public Iterator<String> iterator() {
+            final IFilter<String> filter = moduleFilter();
+            final List<java.nio.file.Path> modules = modules();
+            return new SequentialIterator<>(new Iterable<Iterator<? extends String>>() {
+                @Override
+                public Iterator<Iterator<? extends String>> iterator() {
+                    return new Iterator<Iterator<? extends String>>() {
+
+                        final Iterator<java.nio.file.Path> moduleItr = modules.iterator();
+
+                        @Override
+                        public boolean hasNext() {
+                            return moduleItr.hasNext();
+                        }
+
+                        @Override
+                        public Iterator<String> next() {
+                            java.nio.file.Path module = moduleItr.next();
+                            if (Analyzer.DEBUG) {
+                                System.out.println("Opening: " + module);
+                            }
+                            return new DirectoryClassIterator(module, filter, visibleOnly);
+                        }
+                    };
+                }
+            });
+        }
+
+        /**
+         * Splits by module first (modules are only listed when reached).
+         */
+        @Override
+        public Spliterator<String> spliterator() {
+            final IFilter<String> filter = moduleFilter();
+            return new SequentialSpliterator<java.nio.file.Path, String>(modules(),
+                    module -> Spliterators.spliteratorUnknownSize(new DirectoryClassIterator(module, filter, visibleOnly),
+                            CLASS_NAME_CHARACTERISTICS),
+                    module -> ESTIMATED_CLASSES_PER_DIRECTORY, CLASS_NAME_CHARACTERISTICS);
+        }
+
+        private IFilter<String> moduleFilter() {
+            return new IFilter<String>() {
+                @Override
+                public boolean accept(String className) {
+                    //every module contains a module-info which is not a class
+                    return !"module-info".equals(className) && classNameFilter.accept(className);
+                }
+
+                @Override
+                public String name() {
+                    return classNameFilter.name();
+                }
+            };
+        }
+
+        /**
+         * @return the module directories of the runtime image sorted by name
+         */
+        private static List<java.nio.file.Path> modules() {
+            ArrayList<java.nio.file.Path> modules = new ArrayList<>();
+            try (DirectoryStream<java.nio.file.Path> dirs = Files.newDirectoryStream(
+                    FileSystems.getFileSystem(URI.create("jrt:/")).getPath("/modules"))) {
+                for (java.nio.file.Path module : dirs) {
+                    modules.add(module);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            Collections.sort(modules);
+            return modules;
+        }
+    }
+
+    /**
+     * NOTE: only the central directory is read so listing the entries does
+     * not require inflating any of them.
+     *
+     * @param zip
+     * @param classNameFilter filter for the class names or {@code null} to
+     *                        accept all classes
+     * @param visibleOnly     {@code true} to also read the access flags of
+     *                        each accepted class and drop those that are not
+     *                        visible (see
+     *                        {@link #classesFromPath(Iterable, IFilter, boolean)})
+     *
+     * @return {@link List} of names of all classes in the given zip file that
+     *         are accepted by the filter
+     *
+     * @throws IOException
+     */
+    static ClassNameArena readClassNames(ZipCentralDirectory zip, IFilter<String> classNameFilter, boolean visibleOnly) throws IOException {
+        ClassNameArena retVal = new ClassNameArena(zip.size());
+        for (ZipCentralDirectory.Cursor entry = zip.cursor(); entry.next();) {
+            if (!entry.isDirectory() && entry.nameEndsWith(".class")) {
+                int length = entry.nameLength() - ".class".length();
+                //NOTE: the name is only decoded when it must be checked and
+                //  the bytes are then stored as-is
+                if (classNameFilter != null || visibleOnly) {
+                    String className = entry.name(length, '.');
+                    if (classNameFilter != null && !classNameFilter.accept(className)) {
+                        continue;
+                    }
+                    if (visibleOnly && !isVisibleClass(entry::openStream, className)) {
+                        continue;
+                    }
+                }
+                retVal.append(entry, length);
+            }
+        }
+        retVal.trimToSize();
+        return retVal;
+    }
+
+    /**
+     * Opens the content of a class file.
+     */
+    @FunctionalInterface
+    interface ClassFileSource {
+
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Reads only as far as the access flags of the class file. Soot uses the
+     * same flags as the modifiers of the class and a protected nested class is
+     * public in its class file (and a private one is package-private) so
+     * these are exactly the classes that {@link ClassMemberFilters#VISIBLE}
+     * could accept members from.
+     *
+     * @param source
+     * @param className
+     *
+     * @return {@code true} iff the class file declares a public class or
+     *         cannot be read (i.e. let the resolver decide)
+     */
+    static boolean isVisibleClass(ClassFileSource source, String className) {
+        try (InputStream in = new BufferedInputStream(source.open(), CLASS_HEADER_BUFFER)) {
+            return (ClassFileReader.readAccessFlags(in) & Modifier.PUBLIC) != 0;
+        } catch (IOException ex) {
+            System.err.println("[PathClassHolder] unable to read access flags of " + className + ": " + ex);
+            return true;
+        }
+    }
+
+    /**
+     * Sets the {@link ClassNameIndex} used to find the classes in jar files
+     * on a classpath.
+     *
+     * @param index the {@link ClassNameIndex} or {@code null} to always read
+     *              the jar files
+     */
+    public static void setIndex(ClassNameIndex index) {
+        INDEX = index;
+    }
+
     /**
      * @param paths
      * @param filter
@@ -159,18 +413,85 @@ public final class ClassHolderFactory {
      *         {@link IFilter}
      */
     public static IClassHolder classesFromPath(Iterable<String> paths, IFilter<String> filter) {
+        return classesFromPath(paths, filter, false);
+    }
+
+    /**
+     * Same as {@link #classesFromPath(Iterable, IFilter)} but optionally
+     * skips classes that are not public before they reach the
+     * {@link jla.resolve.IClassResolver}. Only the header of each class file
+     * is read to check this. This is only useful when the member filter
+     * requires a visible class (ex: {@link ClassMemberFilters#VISIBLE}) and
+     * does not change the output in that case.
+     *
+     * @param paths
+     * @param filter
+     * @param visibleOnly {@code true} to skip classes that are not public
+     *
+     * @return {@link IClassHolder} containing classes from the given
+     *         {@link List} of paths that are accepted by the given
+     *         {@link IFilter}
+     */
+    public static IClassHolder classesFromPath(Iterable<String> paths, IFilter<String> filter, boolean visibleOnly) {
         Analyzer.setClasspath(paths);
-        return new PathClassHolder(paths, filter);
+        return new PathClassHolder(paths, filter, visibleOnly);
     }
 
     /**
+     * NOTE: on Java 9+ there is no boot classpath so the classes are found in
+     * the runtime image via {@link #classesFromRuntimeImage(IFilter)}.
+     *
      * @param filter
      *
      * @return {@link IClassHolder} containing classes from the boot classpath
      *         that are accepted by the given {@link IFilter}
      */
     public static IClassHolder classesFromBootPath(IFilter<String> filter) {
-        return classesFromPath(Path.BOOT, filter);
+        return classesFromBootPath(filter, false);
+    }
+
+    /**
+     * @param filter
+     * @param visibleOnly {@code true} to skip classes that are not public
+     *                    (see {@link #classesFromPath(Iterable, IFilter, boolean)})
+     *
+     * @return {@link IClassHolder} containing classes from the boot classpath
+     *         that are accepted by the given {@link IFilter}
+     */
+    public static IClassHolder classesFromBootPath(IFilter<String> filter, boolean visibleOnly) {
+        if (Path.BOOT.isEmpty()) {
+            return classesFromRuntimeImage(filter, visibleOnly);
+        }
+        return classesFromPath(Path.BOOT, filter, visibleOnly);
+    }
+
+    /**
+     * NOTE: the runtime image (i.e. the {@code jrt:/} file system) only exists
+     * on Java 9+ and the classes are read directly from it by the default
+     * classpath of Soot and of the system class loader.
+     *
+     * @param filter
+     *
+     * @return {@link IClassHolder} containing classes from all modules in the
+     *         runtime image of the current JVM that are accepted by the given
+     *         {@link IFilter}
+     */
+    public static IClassHolder classesFromRuntimeImage(IFilter<String> filter) {
+        return classesFromRuntimeImage(filter, false);
+    }
+
+    /**
+     * @param filter
+     * @param visibleOnly {@code true} to skip classes that are not public
+     *                    (see {@link #classesFromPath(Iterable, IFilter, boolean)})
+     *
+     * @return {@link IClassHolder} containing classes from all modules in the
+     *         runtime image of the current JVM that are accepted by the given
+     *         {@link IFilter}
+     */
+    public static IClassHolder classesFromRuntimeImage(IFilter<String> filter, boolean visibleOnly) {
+        Analyzer.setClasspath(null);
+        return new RuntimeImageClassHolder(filter, visibleOnly);
     }
 
     /**
@@ -182,12 +503,14 @@ public final class ClassHolderFactory {
      *         given file
      */
     public static IClassHolder readClasspathsFromFile(String filename, IFilter<String> filter) {
-        return classesFromPath(readAllLines(filename), filter);
+        return classesFromPath(lines(filename), filter);
     }
 
     /**
-     * Reads class names (like "java.util.String") from the given file, one
-     * class name per line.
+     * Reads class names (like "java.util.String") from the given UTF-8 file,
+     * one class name per line. Blank lines and lines starting with '#' are
+     * ignored. The file is read lazily (see {@link MappedLineFile}) each time
+     * the {@link IClassHolder} is iterated.
      *
      * @param filename name of file to read classes from
      *
@@ -195,19 +518,16 @@ public final class ClassHolderFactory {
      *         given file
      */
     public static IClassHolder readClassNamesFromFile(String filename) {
+        final MappedLineFile lines = lines(filename);
         return new IClassHolder() {
-
-            //cache data read from file in case iterator() is repeated
-            private List<String> data;
-
             @Override
             public Iterator<String> iterator() {
-                List<String> retVal = data;
-                if (retVal == null) {
-                    retVal = readAllLines(filename);
-                    data = Collections.unmodifiableList(retVal);
-                }
-                return retVal.iterator();
+                return lines.iterator();
+            }
+
+            @Override
+            public Spliterator<String> spliterator() {
+                return Spliterators.spliteratorUnknownSize(lines.iterator(), CLASS_NAME_CHARACTERISTICS);
             }
 
             @Override
@@ -229,6 +549,11 @@ public final class ClassHolderFactory {
                 return Arrays.asList(names).iterator();
             }
 
+            @Override
+            public Spliterator<String> spliterator() {
+                return Arrays.spliterator(names);
+            }
+
             @Override
             public String name() {
                 return "LIST";
@@ -241,18 +566,11 @@ public final class ClassHolderFactory {
      *
      * @return
      */
-    private static List<String> readAllLines(String filename) {
-        ArrayList<String> retVal = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                retVal.add(line);
-            }
-        } catch (IOException ex) {
-            System.err.println("[readLines] error processing " + filename + ": " + ex);
-            throw new UncheckedIOException(ex);
+    private static MappedLineFile lines(String filename) {
+        if (filename == null) {
+            throw new IllegalArgumentException("Parameters cannot be null!");
         }
-        return retVal;
+        return new MappedLineFile(new File(filename).toPath());
     }
 
     private ClassHolderFactory() {
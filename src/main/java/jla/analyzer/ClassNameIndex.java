@@ -0,0 +1,310 @@
+package jla.analyzer;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import jla.util.ClassNameArena;
+import jla.util.Hex;
+import jla.util.ZipCentralDirectory;
+
+/**
+ * Persistent on-disk index of the names of all classes in a jar (or zip)
+ * file. Each jar has one index file in the index directory holding the
+ * canonical path, size, modification time, and content hash of the jar
+ * followed by all class names (before any filtering) front-coded against the
+ * previous name, i.e. the number of leading chars shared with the previous
+ * name followed by the UTF-8 bytes of the remaining chars.
+ *
+ * An index file is used as-is when the size and modification time of the jar
+ * are unchanged. Otherwise, the hash of the jar's central directory is
+ * compared and the index file is refreshed (if the content is unchanged) or
+ * rebuilt. When the index directory grows beyond its size limit, the least
+ * recently used index files are deleted.
+ *
+ * @author Timothy Hoffman
+ */
+public final class ClassNameIndex {
+
+    /**
+     * Default maximum size of the index directory.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final int MAGIC = 0x4A4C4149;//"JLAI"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".idx";
+
+    private final Path dir;
+    private final long maxBytes;
+
+    /**
+     * @param dir      directory containing the index files (created if
+     *                 needed)
+     * @param maxBytes maximum total size of all index files
+     */
+    public ClassNameIndex(String dir, long maxBytes) {
+        if (dir == null || maxBytes < 1) {
+            throw new IllegalArgumentException("Invalid index parameters!");
+        }
+        this.dir = Paths.get(dir);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param jar
+     *
+     * @return names of all classes in the given jar file, from the index if
+     *         possible
+     *
+     * @throws IOException if the jar cannot be read
+     */
+    public List<String> classesIn(File jar) throws IOException {
+        Path jarPath = jar.toPath().toRealPath();
+        long size = Files.size(jarPath);
+        long mtime = Files.getLastModifiedTime(jarPath).toMillis();
+        Path indexFile = dir.resolve(Hex.encode(sha1(jarPath.toString().getBytes(StandardCharsets.UTF_8))) + SUFFIX);
+
+        Entry cached = read(indexFile, jarPath);
+        if (cached != null && cached.size == size && cached.mtime == mtime) {
+            touch(indexFile);
+            return cached.classes;
+        }
+
+        try (ZipCentralDirectory zip = ZipCentralDirectory.open(jarPath)) {
+            String hash = Hex.encode(sha1(zip.rawBytes()));
+            List<String> classes = (cached != null && cached.hash.equals(hash))
+                    ? cached.classes
+                    : ClassHolderFactory.readClassNames(zip, null, false);
+            write(indexFile, new Entry(jarPath.toString(), size, mtime, hash, classes));
+            return classes;
+        }
+    }
+
+    private static final class Entry {
+
+        final String path;
+        final long size;
+        final long mtime;
+        final String hash;
+        final List<String> classes;
+
+        Entry(String path, long size, long mtime, String hash, List<String> classes) {
+            this.path = path;
+            this.size = size;
+            this.mtime = mtime;
+            this.hash = hash;
+            this.classes = classes;
+        }
+    }
+
+    /**
+     * @return the index entry or {@code null} if the index file does not
+     *         exist, is corrupt, or belongs to a different jar
+     */
+    private static Entry read(Path indexFile, Path jarPath) {
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                return null;
+            }
+            String path = readString(in);
+            if (!path.equals(jarPath.toString())) {
+                return null;
+            }
+            long size = in.getLong();
+            long mtime = in.getLong();
+            String hash = readString(in);
+            int count = in.getInt();
+            ClassNameArena classes = new ClassNameArena(count);
+            //the chars of the previous name are reused for the shared prefix
+            char[] name = new char[256];
+            for (int i = 0; i < count; i++) {
+                int shared = in.getShort() & 0xFFFF;
+                int len = in.getShort() & 0xFFFF;
+                if (shared + len > name.length) {
+                    name = Arrays.copyOf(name, Math.max(shared + len, name.length * 2));
+                }
+                int end = shared;
+                int start = in.position();
+                byte[] bytes = in.array();
+                for (int b = start; b < start + len; b++) {
+                    if (bytes[b] < 0) {
+                        //not ASCII so decode the entire suffix as UTF-8
+                        String suffix = new String(bytes, start, len, StandardCharsets.UTF_8);
+                        suffix.getChars(0, suffix.length(), name, shared);
+                        end = shared + suffix.length();
+                        break;
+                    }
+                    name[end++] = (char) bytes[b];
+                }
+                in.position(start + len);
+                classes.append(CharBuffer.wrap(name, 0, end));
+            }
+            classes.trimToSize();
+            return new Entry(path, size, mtime, hash, Collections.unmodifiableList(classes));
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("[ClassNameIndex] ignoring invalid index " + indexFile + ": " + ex);
+            return null;
+        }
+    }
+
+    private void write(Path indexFile, Entry e) {
+        try {
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "tmp", SUFFIX + ".part");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    writeString(out, e.path);
+                    out.writeLong(e.size);
+                    out.writeLong(e.mtime);
+                    writeString(out, e.hash);
+                    out.writeInt(e.classes.size());
+                    String prev = "";
+                    for (String name : e.classes) {
+                        int shared = sharedPrefix(prev, name);
+                        out.writeShort(shared);
+                        writeString(out, name.substring(shared));
+                        prev = name;
+                    }
+                }
+                //NOTE: rename so concurrent runs never see a partial index
+                Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            evict();
+        } catch (IOException ex) {
+            System.err.println("[ClassNameIndex] unable to write " + indexFile + ": " + ex);
+        }
+    }
+
+    /**
+     * Deletes the least recently used index files until the total size of the
+     * index directory is within the limit.
+     */
+    private void evict() throws IOException {
+        ArrayList<Path> files = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path p : ds) {
+                files.add(p);
+                total += Files.size(p);
+            }
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        long[] used = new long[files.size()];
+        Integer[] order = new Integer[files.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            used[i] = Files.getLastModifiedTime(files.get(i)).toMillis();
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> used[i]));
+        for (int i = 0; i < order.length && total > maxBytes; i++) {
+            Path p = files.get(order[i]);
+            long len = Files.size(p);
+            if (Files.deleteIfExists(p)) {
+                total -= len;
+            }
+        }
+    }
+
+    /**
+     * Records the use of an index file for the LRU eviction.
+     */
+    private static void touch(Path indexFile) {
+        try {
+            Files.setLastModifiedTime(indexFile, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ex) {
+            //only affects the eviction order
+        }
+    }
+
+    /**
+     * Writes the length (in bytes) and UTF-8 bytes of the given String.
+     */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("String too long: " + s.length());
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int len = in.getShort() & 0xFFFF;
+        String s = new String(in.array(), in.position(), len, StandardCharsets.UTF_8);
+        in.position(in.position() + len);
+        return s;
+    }
+
+    private static int sharedPrefix(String a, String b) {
+        int max = Math.min(Math.min(a.length(), b.length()), 0xFFFF);
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        //never split a surrogate pair since the suffix is written as UTF-8
+        if (i > 0 && Character.isHighSurrogate(a.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static byte[] sha1(byte[] bytes) {
+        return sha1(ByteBuffer.wrap(bytes));
+    }
+
+    private static byte[] sha1(ByteBuffer bytes) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            md.update(bytes);
+            return md.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
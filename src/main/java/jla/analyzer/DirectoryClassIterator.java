@@ -0,0 +1,223 @@
+package jla.analyzer;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import jla.filter.IFilter;
+
+/**
+ * Lazily iterates the names of all classes in a directory tree (such as a
+ * {@code target/classes} folder or a module in the {@code jrt:/} file system)
+ * where each nested folder is a package.
+ *
+ * The directories are listed in parallel ahead of the consumer by a shared
+ * pool of threads but the class names are always returned in the same order:
+ * depth-first with the entries of each directory sorted by name. At most
+ * {@link #MAX_PREFETCH} directory listings are held ahead of the consumer so
+ * the entire tree is never materialized at once. Listing of the root directory
+ * starts as soon as the iterator is created.
+ *
+ * @author Timothy Hoffman
+ */
+final class DirectoryClassIterator implements Iterator<String> {
+
+    /**
+     * Maximum number of directories listed ahead of the consumer.
+     */
+    static final int MAX_PREFETCH = 1024;
+
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "jla-dirwalk-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    /**
+     * The class names and sub-directories directly within a directory.
+     */
+    private static final class Listing {
+
+        final List<String> classes;
+        /**
+         * Each element is a {@link Future} of a {@link Listing} that was
+         * prefetched or a {@link Pending} directory that has not been listed.
+         */
+        final List<Object> subdirs;
+
+        Listing(List<String> classes, List<Object> subdirs) {
+            this.classes = classes;
+            this.subdirs = subdirs;
+        }
+    }
+
+    /**
+     * A directory that has not been listed yet.
+     */
+    private static final class Pending {
+
+        final Path dir;
+        final String packagePrefix;
+
+        Pending(Path dir, String packagePrefix) {
+            this.dir = dir;
+            this.packagePrefix = packagePrefix;
+        }
+    }
+
+    private final IFilter<String> classNameFilter;
+    private final boolean visibleOnly;
+    private final Semaphore prefetch;
+    private final Deque<Object> todo;
+    private Iterator<String> current;
+
+    /**
+     * @param root            the root directory (i.e. the default package)
+     * @param classNameFilter
+     */
+    DirectoryClassIterator(Path root, IFilter<String> classNameFilter) {
+        this(root, classNameFilter, false);
+    }
+
+    /**
+     * @param root            the root directory (i.e. the default package)
+     * @param classNameFilter
+     * @param visibleOnly     {@code true} to skip classes that are not
+     *                        visible (checked while listing, i.e. in
+     *                        parallel)
+     */
+    DirectoryClassIterator(Path root, IFilter<String> classNameFilter, boolean visibleOnly) {
+        this.classNameFilter = classNameFilter;
+        this.visibleOnly = visibleOnly;
+        this.prefetch = new Semaphore(MAX_PREFETCH);
+        this.todo = new ArrayDeque<>();
+        this.current = Collections.emptyIterator();
+        this.todo.push(submit(root, ""));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (todo.isEmpty()) {
+                return false;
+            }
+            Listing next = take(todo.pop());
+            current = next.classes.iterator();
+            for (ListIterator<Object> it = next.subdirs.listIterator(next.subdirs.size()); it.hasPrevious();) {
+                todo.push(it.previous());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    private Listing take(Object o) {
+        if (o instanceof Pending) {
+            Pending p = (Pending) o;
+            return list(p.dir, p.packagePrefix);
+        }
+        @SuppressWarnings("unchecked")
+        Future<Listing> f = (Future<Listing>) o;
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        } finally {
+            prefetch.release();
+        }
+    }
+
+    /**
+     * @return a {@link Future} of the {@link Listing} of the given directory
+     *         if the prefetch limit allows, otherwise a {@link Pending}
+     */
+    private Object submit(Path dir, String packagePrefix) {
+        if (prefetch.tryAcquire()) {
+            return POOL.submit(() -> list(dir, packagePrefix));
+        } else {
+            return new Pending(dir, packagePrefix);
+        }
+    }
+
+    /**
+     * Lists the given directory and starts listing its sub-directories in
+     * the background (while the prefetch limit allows).
+     */
+    private Listing list(Path dir, String packagePrefix) {
+        ArrayList<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                names.add(entry.getFileName().toString());
+            }
+        } catch (IOException ex) {
+            System.err.println("[DirectoryClassIterator] unable to list directory " + dir + ": " + ex);
+            return new Listing(Collections.emptyList(), Collections.emptyList());
+        }
+        Collections.sort(names);
+        ArrayList<String> classes = new ArrayList<>();
+        ArrayList<Object> subdirs = new ArrayList<>();
+        for (String name : names) {
+            //NOTE: assume entries named "*.class" are files to avoid a stat
+            //  call per class; only the other entries are checked.
+            if (name.endsWith(".class")) {
+                String className = packagePrefix + name.substring(0, name.length() - ".class".length());
+                if (classNameFilter.accept(className) && (!visibleOnly
+                        || ClassHolderFactory.isVisibleClass(() -> Files.newInputStream(dir.resolve(name)), className))) {
+                    classes.add(className);
+                }
+            } else {
+                Path sub = dir.resolve(name);
+                if (Files.isDirectory(sub)) {
+                    subdirs.add(submit(sub, packagePrefix + name + '.'));
+                }
+            }
+        }
+        return new Listing(classes, subdirs);
+    }
+}
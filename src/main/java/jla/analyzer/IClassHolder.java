@@ -27,6 +27,8 @@ package jla.analyzer;
  */
 
 import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A container to iterate a list of class names.
@@ -43,6 +45,16 @@ public interface IClassHolder extends Iterable<String> {
     @Override
     public Iterator<String> iterator();
 
+    /**
+     * @param parallel {@code true} for a parallel {@link Stream}
+     *
+     * @return a {@link Stream} over all class names in this
+     *         {@link IClassHolder} based on its {@link #spliterator()}
+     */
+    public default Stream<String> stream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
     /**
      * @return a short descriptor for this {@link IClassHolder} that is safe for
      *         inclusion in a file name
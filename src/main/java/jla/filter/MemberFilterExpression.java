@@ -0,0 +1,850 @@
+package jla.filter;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import jla.util.Hex;
+import soot.ClassMember;
+import soot.Modifier;
+import soot.SootField;
+import soot.SootMethod;
+
+/**
+ * Compiles a boolean expression over class members into an {@link IFilter}.
+ * For example: {@code visible && method && !synthetic && name~"^get"}
+ *
+ * The expression consists of the operators {@code !}, {@code &&}, and
+ * {@code ||} (in order of decreasing precedence), parentheses, and the
+ * following terms (case-insensitive):
+ * <ul>
+ * <li>{@code all}, {@code none}</li>
+ * <li>the {@link ClassMemberFilters} names (i.e. {@code field},
+ * {@code method}, {@code init}, {@code clinit}, {@code executable},
+ * {@code native}, and {@code visible})</li>
+ * <li>the modifiers {@code public}, {@code protected}, {@code private},
+ * {@code package} (none of the former), {@code static}, {@code final},
+ * {@code abstract}, {@code synchronized}, {@code transient},
+ * {@code volatile}, {@code strictfp}, and {@code synthetic}</li>
+ * <li>{@code name~"regex"} and {@code class~"regex"} which accept members
+ * whose name (or the name of the declaring class) contains a match of the
+ * regular expression (a {@code "} or {@code \} in the String is escaped with
+ * {@code \})</li>
+ * </ul>
+ *
+ * The expression is simplified before it is compiled: constants are folded,
+ * all modifier tests in a conjunction are merged into one bitmask test (and
+ * single modifiers in a disjunction into one "any of" test), all member kind
+ * tests are merged into one set test, and the remaining operands are ordered
+ * from cheapest to most expensive so the short-circuit evaluation performs
+ * the expensive tests (ex: regular expressions) for as few members as
+ * possible.
+ *
+ * The {@link IFilter#name()} of the result is derived from the expression
+ * (ex: {@code VISIBLE-AND-METHOD}) with each pair of parentheses written as
+ * {@code _}. When a regular expression contains a character that is not safe
+ * in a file name, that character is written as {@code _} and a short hash of
+ * the expression is appended so that different expressions never have the
+ * same name.
+ *
+ * @author Timothy Hoffman
+ */
+public final class MemberFilterExpression {
+
+    //Member kinds as bits in a set
+    private static final int KIND_FIELD = 1;
+    private static final int KIND_METHOD = 2;
+    private static final int KIND_INIT = 4;
+    private static final int KIND_CLINIT = 8;
+    private static final int ALL_KINDS = KIND_FIELD | KIND_METHOD | KIND_INIT | KIND_CLINIT;
+
+    private static final int VISIBLE_MODIFIERS = Modifier.PUBLIC | Modifier.PROTECTED;
+    private static final int ACCESS_MODIFIERS = Modifier.PUBLIC | Modifier.PROTECTED | Modifier.PRIVATE;
+
+    /**
+     * @param expression
+     *
+     * @return an {@link IFilter} that accepts the members for which the given
+     *         expression is {@code true}
+     *
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static IFilter<ClassMember> compile(String expression) {
+        Parser p = new Parser(expression);
+        Node root = p.parse();
+        String trimmed = expression.trim();
+        String name = p.lossy ? p.name.append('-').append(shortHash(trimmed)).toString() : p.name.toString();
+        return new Compiled(trimmed, name, root.compile());
+    }
+
+    /**
+     * @return the first 8 hex digits of the SHA-1 of the given String
+     */
+    private static String shortHash(String s) {
+        try {
+            return Hex.encode(MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8)), 4);
+        } catch (NoSuchAlgorithmException ex) {
+            //every Java platform must support SHA-1
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private MemberFilterExpression() {
+    }
+
+    /**
+     * @return the kind of the given member as one of the {@code KIND_*} bits
+     */
+    private static int kindOf(ClassMember m) {
+        if (m instanceof SootMethod) {
+            SootMethod sm = (SootMethod) m;
+            if (sm.isConstructor()) {
+                return KIND_INIT;
+            } else if (sm.isStaticInitializer()) {
+                return KIND_CLINIT;
+            } else {
+                return KIND_METHOD;
+            }
+        } else {
+            return m instanceof SootField ? KIND_FIELD : 0;
+        }
+    }
+
+    private static String nameOf(ClassMember m) {
+        if (m instanceof SootMethod) {
+            return ((SootMethod) m).getName();
+        } else {
+            return m instanceof SootField ? ((SootField) m).getName() : "";
+        }
+    }
+
+    private static int modifiersOf(ClassMember m, boolean ofClass) {
+        return ofClass ? m.getDeclaringClass().getModifiers() : m.getModifiers();
+    }
+
+    /**
+     * The result of {@link #compile(String)}.
+     */
+    private static final class Compiled implements IFilter<ClassMember> {
+
+        private final String expression;
+        private final String name;
+        private final Predicate<ClassMember> test;
+
+        Compiled(String expression, String name, Predicate<ClassMember> test) {
+            this.expression = expression;
+            this.name = name;
+            this.test = test;
+        }
+
+        @Override
+        public boolean accept(ClassMember m) {
+            return test.test(m);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return expression;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Syntax tree and simplification
+    // ---------------------------------------------------------------------
+    /**
+     * A node of the simplified syntax tree.
+     */
+    private abstract static class Node {
+
+        /**
+         * @return relative cost of evaluating this node for one member
+         */
+        abstract int cost();
+
+        abstract Predicate<ClassMember> compile();
+    }
+
+    private static final Comparator<Node> BY_COST = Comparator.comparingInt(Node::cost);
+
+    private static final class Const extends Node {
+
+        static final Const TRUE = new Const(true);
+        static final Const FALSE = new Const(false);
+
+        final boolean value;
+
+        private Const(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        int cost() {
+            return 0;
+        }
+
+        @Override
+        Predicate<ClassMember> compile() {
+            return value ? m -> true : m -> false;
+        }
+    }
+
+    /**
+     * The kind of the member is in the set.
+     */
+    private static final class Kinds extends Node {
+
+        final int set;
+
+        Kinds(int set) {
+            this.set = set;
+        }
+
+        @Override
+        int cost() {
+            return 1;
+        }
+
+        @Override
+        Predicate<ClassMember> compile() {
+            final int s = set;
+            return m -> (kindOf(m) & s) != 0;
+        }
+    }
+
+    /**
+     * The modifier bits in the mask are exactly those in the value.
+     */
+    private static final class Mods extends Node {
+
+        final boolean ofClass;
+        final int mask;
+        final int value;
+
+        Mods(boolean ofClass, int mask, int value) {
+            this.ofClass = ofClass;
+            this.mask = mask;
+            this.value = value;
+        }
+
+        @Override
+        int cost() {
+            return ofClass ? 2 : 1;
+        }
+
+        @Override
+        Predicate<ClassMember> compile() {
+            final boolean c = ofClass;
+            final int mk = mask;
+            final int v = value;
+            return m -> (modifiersOf(m, c) & mk) == v;
+        }
+    }
+
+    /**
+     * At least one of the modifier bits in the mask is set.
+     */
+    private static final class AnyMods extends Node {
+
+        final boolean ofClass;
+        final int mask;
+
+        AnyMods(boolean ofClass, int mask) {
+            this.ofClass = ofClass;
+            this.mask = mask;
+        }
+
+        @Override
+        int cost() {
+            return ofClass ? 2 : 1;
+        }
+
+        @Override
+        Predicate<ClassMember> compile() {
+            final boolean c = ofClass;
+            final int mk = mask;
+            return m -> (modifiersOf(m, c) & mk) != 0;
+        }
+    }
+
+    /**
+     * The name of the member (or its declaring class) contains a match.
+     */
+    private static final class Matches extends Node {
+
+        final boolean ofClass;
+        final Pattern pattern;
+
+        Matches(boolean ofClass, Pattern pattern) {
+            this.ofClass = ofClass;
+            this.pattern = pattern;
+        }
+
+        @Override
+        int cost() {
+            return 16;
+        }
+
+        @Override
+        Predicate<ClassMember> compile() {
+            final Pattern p = pattern;
+            return ofClass
+                    ? m -> p.matcher(m.getDeclaringClass().getName()).find()
+                    : m -> p.matcher(nameOf(m)).find();
+        }
+    }
+
+    private static final class Not extends Node {
+
+        final Node operand;
+
+        Not(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        int cost() {
+            return operand.cost();
+        }
+
+        @Override
+        Predicate<ClassMember> compile() {
+            return operand.compile().negate();
+        }
+    }
+
+    /**
+     * Base of {@link And} and {@link Or}. The operands are sorted by cost.
+     */
+    private abstract static class Junction extends Node {
+
+        final List<Node> operands;
+        private final int cost;
+
+        Junction(List<Node> operands) {
+            Collections.sort(operands, BY_COST);
+            this.operands = operands;
+            int c = 0;
+            for (Node n : operands) {
+                c += n.cost();
+            }
+            this.cost = c;
+        }
+
+        @Override
+        int cost() {
+            return cost;
+        }
+
+        /**
+         * @return the compiled operands that are not merged into the fields
+         *         of the evaluator
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        static Predicate<ClassMember>[] compileAll(List<Node> nodes) {
+            Predicate<ClassMember>[] ret = new Predicate[nodes.size()];
+            for (int i = 0; i < ret.length; i++) {
+                ret[i] = nodes.get(i).compile();
+            }
+            return ret;
+        }
+    }
+
+    private static final class And extends Junction {
+
+        And(List<Node> operands) {
+            super(operands);
+        }
+
+        @Override
+        Predicate<ClassMember> compile() {
+            //After simplification there is at most one Kinds and one Mods
+            //  for each of the member and class modifiers.
+            int kinds = ALL_KINDS;
+            int memberMask = 0, memberValue = 0, memberAny = 0;
+            int classMask = 0, classValue = 0, classAny = 0;
+            List<Node> rest = new ArrayList<>();
+            for (Node n : operands) {
+                if (n instanceof Kinds) {
+                    kinds = ((Kinds) n).set;
+                } else if (n instanceof Mods && !((Mods) n).ofClass) {
+                    memberMask = ((Mods) n).mask;
+                    memberValue = ((Mods) n).value;
+                } else if (n instanceof Mods) {
+                    classMask = ((Mods) n).mask;
+                    classValue = ((Mods) n).value;
+                } else if (n instanceof AnyMods && !((AnyMods) n).ofClass && memberAny == 0) {
+                    memberAny = ((AnyMods) n).mask;
+                } else if (n instanceof AnyMods && ((AnyMods) n).ofClass && classAny == 0) {
+                    classAny = ((AnyMods) n).mask;
+                } else {
+                    rest.add(n);
+                }
+            }
+            return new Conjunction(kinds, memberMask, memberValue, memberAny,
+                    classMask, classValue, classAny, compileAll(rest));
+        }
+    }
+
+    private static final class Or extends Junction {
+
+        Or(List<Node> operands) {
+            super(operands);
+        }
+
+        @Override
+        Predicate<ClassMember> compile() {
+            //After simplification there is at most one Kinds and one AnyMods
+            //  for each of the member and class modifiers.
+            int kinds = 0, memberAny = 0, classAny = 0;
+            List<Node> rest = new ArrayList<>();
+            for (Node n : operands) {
+                if (n instanceof Kinds) {
+                    kinds = ((Kinds) n).set;
+                } else if (n instanceof AnyMods && !((AnyMods) n).ofClass) {
+                    memberAny = ((AnyMods) n).mask;
+                } else if (n instanceof AnyMods) {
+                    classAny = ((AnyMods) n).mask;
+                } else {
+                    rest.add(n);
+                }
+            }
+            return new Disjunction(kinds, memberAny, classAny, compileAll(rest));
+        }
+    }
+
+    private static Node kinds(int set) {
+        set &= ALL_KINDS;
+        return set == 0 ? Const.FALSE : set == ALL_KINDS ? Const.TRUE : new Kinds(set);
+    }
+
+    private static Node not(Node n) {
+        if (n instanceof Const) {
+            return ((Const) n).value ? Const.FALSE : Const.TRUE;
+        } else if (n instanceof Not) {
+            return ((Not) n).operand;
+        } else if (n instanceof Kinds) {
+            return kinds(~((Kinds) n).set);
+        } else if (n instanceof Mods) {
+            Mods m = (Mods) n;
+            if (Integer.bitCount(m.mask) == 1) {
+                return new Mods(m.ofClass, m.mask, m.value ^ m.mask);
+            } else if (m.value == 0) {
+                return new AnyMods(m.ofClass, m.mask);
+            }
+        } else if (n instanceof AnyMods) {
+            return new Mods(((AnyMods) n).ofClass, ((AnyMods) n).mask, 0);
+        } else if (n instanceof Junction) {
+            //De Morgan so the negated operands can be merged
+            List<Node> negated = new ArrayList<>();
+            for (Node o : ((Junction) n).operands) {
+                negated.add(not(o));
+            }
+            return n instanceof And ? or(negated) : and(negated);
+        }
+        return new Not(n);
+    }
+
+    private static Node and(List<Node> operands) {
+        int kinds = ALL_KINDS;
+        int[] mask = new int[2];
+        int[] value = new int[2];
+        List<Node> rest = new ArrayList<>();
+        List<Node> todo = new ArrayList<>(operands);
+        for (int i = 0; i < todo.size(); i++) {
+            Node n = todo.get(i);
+            if (n instanceof And) {
+                todo.addAll(((And) n).operands);
+            } else if (n instanceof Const) {
+                if (!((Const) n).value) {
+                    return Const.FALSE;
+                }
+            } else if (n instanceof Kinds) {
+                kinds &= ((Kinds) n).set;
+            } else if (n instanceof Mods) {
+                Mods m = (Mods) n;
+                int w = m.ofClass ? 1 : 0;
+                if (((mask[w] & m.mask) & (value[w] ^ m.value)) != 0) {
+                    return Const.FALSE;
+                }
+                mask[w] |= m.mask;
+                value[w] |= m.value;
+            } else {
+                rest.add(n);
+            }
+        }
+        if (kinds == 0) {
+            return Const.FALSE;
+        } else if (kinds != ALL_KINDS) {
+            rest.add(new Kinds(kinds));
+        }
+        for (int w = 0; w < 2; w++) {
+            if (mask[w] != 0) {
+                rest.add(new Mods(w == 1, mask[w], value[w]));
+            }
+        }
+        return rest.isEmpty() ? Const.TRUE : rest.size() == 1 ? rest.get(0) : new And(rest);
+    }
+
+    private static Node or(List<Node> operands) {
+        int kinds = 0;
+        int[] any = new int[2];
+        List<Node> rest = new ArrayList<>();
+        List<Node> todo = new ArrayList<>(operands);
+        for (int i = 0; i < todo.size(); i++) {
+            Node n = todo.get(i);
+            if (n instanceof Or) {
+                todo.addAll(((Or) n).operands);
+            } else if (n instanceof Const) {
+                if (((Const) n).value) {
+                    return Const.TRUE;
+                }
+            } else if (n instanceof Kinds) {
+                kinds |= ((Kinds) n).set;
+            } else if (n instanceof AnyMods) {
+                any[((AnyMods) n).ofClass ? 1 : 0] |= ((AnyMods) n).mask;
+            } else if (n instanceof Mods && Integer.bitCount(((Mods) n).mask) == 1 && ((Mods) n).mask == ((Mods) n).value) {
+                any[((Mods) n).ofClass ? 1 : 0] |= ((Mods) n).mask;
+            } else {
+                rest.add(n);
+            }
+        }
+        if (kinds == ALL_KINDS) {
+            return Const.TRUE;
+        } else if (kinds != 0) {
+            rest.add(new Kinds(kinds));
+        }
+        for (int w = 0; w < 2; w++) {
+            if (any[w] != 0) {
+                rest.add(new AnyMods(w == 1, any[w]));
+            }
+        }
+        return rest.isEmpty() ? Const.FALSE : rest.size() == 1 ? rest.get(0) : new Or(rest);
+    }
+
+    // ---------------------------------------------------------------------
+    // Evaluators
+    // ---------------------------------------------------------------------
+    /**
+     * Evaluates a conjunction with all kind and modifier tests merged.
+     */
+    private static final class Conjunction implements Predicate<ClassMember> {
+
+        private final int kinds;
+        private final int memberMask, memberValue, memberAny;
+        private final int classMask, classValue, classAny;
+        private final boolean testClass;
+        private final Predicate<ClassMember>[] rest;
+
+        Conjunction(int kinds, int memberMask, int memberValue, int memberAny,
+                int classMask, int classValue, int classAny, Predicate<ClassMember>[] rest) {
+            this.kinds = kinds;
+            this.memberMask = memberMask;
+            this.memberValue = memberValue;
+            this.memberAny = memberAny;
+            this.classMask = classMask;
+            this.classValue = classValue;
+            this.classAny = classAny;
+            this.testClass = (classMask | classAny) != 0;
+            this.rest = rest;
+        }
+
+        @Override
+        public boolean test(ClassMember m) {
+            int mods = m.getModifiers();
+            if ((mods & memberMask) != memberValue
+                    || (memberAny != 0 && (mods & memberAny) == 0)
+                    || (kinds != ALL_KINDS && (kindOf(m) & kinds) == 0)) {
+                return false;
+            }
+            if (testClass) {
+                int cmods = m.getDeclaringClass().getModifiers();
+                if ((cmods & classMask) != classValue
+                        || (classAny != 0 && (cmods & classAny) == 0)) {
+                    return false;
+                }
+            }
+            for (Predicate<ClassMember> p : rest) {
+                if (!p.test(m)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Evaluates a disjunction with all kind and modifier tests merged.
+     */
+    private static final class Disjunction implements Predicate<ClassMember> {
+
+        private final int kinds;
+        private final int memberAny;
+        private final int classAny;
+        private final Predicate<ClassMember>[] rest;
+
+        Disjunction(int kinds, int memberAny, int classAny, Predicate<ClassMember>[] rest) {
+            this.kinds = kinds;
+            this.memberAny = memberAny;
+            this.classAny = classAny;
+            this.rest = rest;
+        }
+
+        @Override
+        public boolean test(ClassMember m) {
+            if ((m.getModifiers() & memberAny) != 0
+                    || (kinds != 0 && (kindOf(m) & kinds) != 0)
+                    || (classAny != 0 && (m.getDeclaringClass().getModifiers() & classAny) != 0)) {
+                return true;
+            }
+            for (Predicate<ClassMember> p : rest) {
+                if (p.test(m)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Parser
+    // ---------------------------------------------------------------------
+    /**
+     * Recursive descent parser that simplifies while parsing and builds a
+     * file name safe name for the expression.
+     */
+    private static final class Parser {
+
+        private final String text;
+        private int pos;
+        final StringBuilder name;
+        /**
+         * {@code true} if the name lost characters of a regular expression.
+         */
+        boolean lossy;
+
+        Parser(String text) {
+            if (text == null) {
+                throw new IllegalArgumentException("Parameters cannot be null!");
+            }
+            this.text = text;
+            this.pos = 0;
+            this.name = new StringBuilder();
+        }
+
+        Node parse() {
+            Node n = parseOr();
+            skipSpace();
+            if (pos < text.length()) {
+                throw error("unexpected '" + text.charAt(pos) + "'");
+            }
+            return n;
+        }
+
+        private Node parseOr() {
+            List<Node> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while (accept("||")) {
+                name.append("-OR-");
+                operands.add(parseAnd());
+            }
+            return operands.size() == 1 ? operands.get(0) : or(operands);
+        }
+
+        private Node parseAnd() {
+            List<Node> operands = new ArrayList<>();
+            operands.add(parseUnary());
+            while (accept("&&")) {
+                name.append("-AND-");
+                operands.add(parseUnary());
+            }
+            return operands.size() == 1 ? operands.get(0) : and(operands);
+        }
+
+        private Node parseUnary() {
+            if (accept("!")) {
+                name.append("NOT-");
+                return not(parseUnary());
+            } else if (accept("(")) {
+                name.append('_');
+                Node n = parseOr();
+                if (!accept(")")) {
+                    throw error("expected ')'");
+                }
+                name.append('_');
+                return n;
+            } else {
+                return parseTerm();
+            }
+        }
+
+        private Node parseTerm() {
+            skipSpace();
+            int start = pos;
+            while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error(pos < text.length() ? "unexpected '" + text.charAt(pos) + "'" : "unexpected end");
+            }
+            String word = text.substring(start, pos).toLowerCase();
+            name.append(word.toUpperCase());
+            switch (word) {
+                case "all":
+                    return Const.TRUE;
+                case "none":
+                    return Const.FALSE;
+                case "field":
+                    return kinds(KIND_FIELD);
+                case "method":
+                    return kinds(KIND_METHOD);
+                case "init":
+                    return kinds(KIND_INIT);
+                case "clinit":
+                    return kinds(KIND_CLINIT);
+                case "executable":
+                    return kinds(KIND_METHOD | KIND_INIT | KIND_CLINIT);
+                case "visible": {
+                    List<Node> both = new ArrayList<>();
+                    both.add(new AnyMods(false, VISIBLE_MODIFIERS));
+                    both.add(new AnyMods(true, VISIBLE_MODIFIERS));
+                    return and(both);
+                }
+                case "package":
+                    return new Mods(false, ACCESS_MODIFIERS, 0);
+                case "public":
+                    return modifier(Modifier.PUBLIC);
+                case "protected":
+                    return modifier(Modifier.PROTECTED);
+                case "private":
+                    return modifier(Modifier.PRIVATE);
+                case "static":
+                    return modifier(Modifier.STATIC);
+                case "final":
+                    return modifier(Modifier.FINAL);
+                case "abstract":
+                    return modifier(Modifier.ABSTRACT);
+                case "synchronized":
+                    return modifier(Modifier.SYNCHRONIZED);
+                case "native":
+                    return modifier(Modifier.NATIVE);
+                case "transient":
+                    return modifier(Modifier.TRANSIENT);
+                case "volatile":
+                    return modifier(Modifier.VOLATILE);
+                case "strictfp":
+                    return modifier(Modifier.STRICTFP);
+                case "synthetic":
+                    return modifier(Modifier.SYNTHETIC);
+                case "name":
+                case "class":
+                    return new Matches(word.equals("class"), parseRegex());
+                default:
+                    pos = start;
+                    throw error("unknown term '" + text.substring(start, start + word.length()) + "'");
+            }
+        }
+
+        private Pattern parseRegex() {
+            if (!accept("~")) {
+                throw error("expected '~'");
+            }
+            skipSpace();
+            if (pos >= text.length() || text.charAt(pos) != '"') {
+                throw error("expected '\"'");
+            }
+            int start = pos++;
+            StringBuilder regex = new StringBuilder();
+            while (true) {
+                if (pos >= text.length()) {
+                    pos = start;
+                    throw error("unterminated String");
+                }
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    break;
+                } else if (c == '\\' && pos < text.length()
+                        && (text.charAt(pos) == '"' || text.charAt(pos) == '\\')) {
+                    c = text.charAt(pos++);
+                }
+                regex.append(c);
+            }
+            name.append('-');
+            for (int i = 0; i < regex.length(); i++) {
+                char c = regex.charAt(i);
+                if (Character.isLetterOrDigit(c) || c == '.' || c == '$') {
+                    name.append(c);
+                } else {
+                    //NOTE: includes '_' which would be ambiguous
+                    name.append('_');
+                    lossy = true;
+                }
+            }
+            try {
+                return Pattern.compile(regex.toString());
+            } catch (PatternSyntaxException ex) {
+                pos = start;
+                throw error("invalid regular expression: " + ex.getDescription());
+            }
+        }
+
+        private static Node modifier(int bit) {
+            return new Mods(false, bit, bit);
+        }
+
+        private boolean accept(String token) {
+            skipSpace();
+            if (text.startsWith(token, pos)) {
+                pos += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid member filter expression at position " + pos + ": " + message + " in \"" + text + "\"");
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package jla.filter;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import jla.util.MappedLineFile;
+
+/**
+ * {@link IFilter} for class names defined by include and exclude rules and
+ * stored in a compact (double-array) prefix trie so that checking a name takes
+ * time proportional to the length of the name regardless of the number of
+ * rules.
+ *
+ * Each rule is a line of the form {@code +pattern} (include),
+ * {@code -pattern} (exclude), or {@code pattern} (include). Blank lines and
+ * lines starting with {@code #} are ignored. A pattern is one of:
+ * <ul>
+ * <li>{@code a.b.C} matches exactly the class {@code a.b.C}</li>
+ * <li>{@code a.b.*} or {@code a.b.Foo*} matches the classes in package
+ * {@code a.b} (whose simple name starts with {@code Foo})</li>
+ * <li>{@code a.b.**}, {@code a.b.Foo**}, or {@code a.b.} matches all names
+ * that start with the text before the wildcard (i.e. including
+ * subpackages)</li>
+ * </ul>
+ * The rule with the longest text before the wildcard decides whether a name
+ * is accepted. For rules with the same text, an exact match beats {@code *}
+ * which beats {@code **}, and for identical patterns the last rule wins. Names
+ * that match no rule are accepted only if there are no include rules.
+ *
+ * @author Timothy Hoffman
+ */
+public final class PrefixTrieFilter implements IFilter<String> {
+
+    //Values of a rule slot
+    private static final byte NO_RULE = 0;
+    private static final byte INCLUDE = 1;
+    private static final byte EXCLUDE = 2;
+
+    //Rule slots of each node (as the shift of the two bits in the rules)
+    private static final int EXACT = 0;
+    private static final int PACKAGE = 2;
+    private static final int SUBTREE = 4;
+
+    private final String name;
+    private final boolean acceptUnmatched;
+    //Double-array trie: the child of node n along character c is node
+    //  base[n] + c if check[base[n] + c] == n + 1 (0 marks an unused index).
+    //  The rules ending at node n are in rules[n] (two bits per slot).
+    private final int[] base;
+    private final int[] check;
+    private final byte[] rules;
+
+    /**
+     * @param name  a short name for this filter that is safe for inclusion in
+     *              a file name
+     * @param lines the rules (one per String) as described in
+     *              {@link PrefixTrieFilter}
+     *
+     * @throws IllegalArgumentException if a rule is not valid
+     */
+    public PrefixTrieFilter(String name, Iterable<String> lines) {
+        if (name == null || lines == null) {
+            throw new IllegalArgumentException("Parameters cannot be null!");
+        }
+        //Build a pointer-based trie first and flatten it afterwards
+        TrieNode root = new TrieNode();
+        int nodeCount = 1;
+        boolean anyInclude = false;
+        for (String line : lines) {
+            String rule = line.trim();
+            if (rule.isEmpty() || rule.charAt(0) == '#') {
+                continue;
+            }
+            byte action = INCLUDE;
+            if (rule.charAt(0) == '+' || rule.charAt(0) == '-') {
+                action = rule.charAt(0) == '+' ? INCLUDE : EXCLUDE;
+                rule = rule.substring(1).trim();
+            }
+            int slot;
+            String prefix;
+            if (rule.endsWith("**")) {
+                slot = SUBTREE;
+                prefix = rule.substring(0, rule.length() - 2);
+            } else if (rule.endsWith("*")) {
+                slot = PACKAGE;
+                prefix = rule.substring(0, rule.length() - 1);
+            } else if (rule.endsWith(".")) {
+                slot = SUBTREE;
+                prefix = rule;
+            } else {
+                slot = EXACT;
+                prefix = rule;
+            }
+            if (prefix.indexOf('*') >= 0 || (slot == EXACT && prefix.isEmpty())) {
+                throw new IllegalArgumentException("Invalid name filter rule (wildcards are only allowed at the end): " + line);
+            }
+            TrieNode node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                TrieNode child = node.children.get(prefix.charAt(i));
+                if (child == null) {
+                    child = new TrieNode();
+                    node.children.put(prefix.charAt(i), child);
+                    nodeCount++;
+                }
+                node = child;
+            }
+            node.rules = (byte) ((node.rules & ~(3 << slot)) | (action << slot));
+            anyInclude |= action == INCLUDE;
+        }
+        this.name = name;
+        this.acceptUnmatched = !anyInclude;
+        //Place the children of each node (breadth-first) at the lowest base
+        //  where all of their indices are unused.
+        int size = nodeCount + 128;
+        int[] b = new int[size];
+        int[] chk = new int[size];
+        byte[] r = new byte[size];
+        chk[0] = -1;
+        int used = 1;
+        int firstFree = 1;
+        List<TrieNode> queue = new ArrayList<>(nodeCount);
+        queue.add(root);
+        for (int q = 0; q < queue.size(); q++) {
+            TrieNode n = queue.get(q);
+            r[n.index] = n.rules;
+            if (n.children.isEmpty()) {
+                continue;
+            }
+            while (firstFree < chk.length && chk[firstFree] != 0) {
+                firstFree++;
+            }
+            int bs = Math.max(1, firstFree - n.children.firstKey());
+            search:
+            for (;; bs++) {
+                for (char c : n.children.keySet()) {
+                    if (bs + c >= chk.length) {
+                        int grow = Math.max(2 * chk.length, bs + c + 1);
+                        b = Arrays.copyOf(b, grow);
+                        chk = Arrays.copyOf(chk, grow);
+                        r = Arrays.copyOf(r, grow);
+                    } else if (chk[bs + c] != 0) {
+                        continue search;
+                    }
+                }
+                break;
+            }
+            b[n.index] = bs;
+            for (Map.Entry<Character, TrieNode> e : n.children.entrySet()) {
+                int idx = bs + e.getKey();
+                chk[idx] = n.index + 1;
+                e.getValue().index = idx;
+                queue.add(e.getValue());
+                used = Math.max(used, idx + 1);
+            }
+        }
+        this.base = Arrays.copyOf(b, used);
+        this.check = Arrays.copyOf(chk, used);
+        this.rules = Arrays.copyOf(r, used);
+    }
+
+    /**
+     * @param filename name of a file containing the rules (one per line) as
+     *                 described in {@link PrefixTrieFilter}
+     *
+     * @return a {@link PrefixTrieFilter} named after the file
+     */
+    public static PrefixTrieFilter fromFile(String filename) {
+        ArrayList<String> lines = new ArrayList<>();
+        try {
+            for (String line : new MappedLineFile(new File(filename).toPath())) {
+                lines.add(line);
+            }
+        } catch (UncheckedIOException ex) {
+            System.err.println("[PrefixTrieFilter] error processing " + filename + ": " + ex.getCause());
+            throw ex;
+        }
+        String base = new File(filename).getName();
+        int dot = base.lastIndexOf('.');
+        if (dot > 0) {
+            base = base.substring(0, dot);
+        }
+        return new PrefixTrieFilter(base.replaceAll("[^A-Za-z0-9_.$-]", "_"), lines);
+    }
+
+    @Override
+    public boolean accept(String className) {
+        final int len = className.length();
+        int lastDot = -2; //computed only if needed
+        int decision = NO_RULE;
+        int node = 0;
+        for (int i = 0;; i++) {
+            int r = rules[node];
+            if (r != 0) {
+                //rules at deeper nodes override, so check least specific first
+                if ((r >> SUBTREE & 3) != NO_RULE) {
+                    decision = r >> SUBTREE & 3;
+                }
+                if ((r >> PACKAGE & 3) != NO_RULE) {
+                    if (lastDot == -2) {
+                        lastDot = className.lastIndexOf('.');
+                    }
+                    if (i > lastDot) {
+                        decision = r >> PACKAGE & 3;
+                    }
+                }
+                if (i == len && (r >> EXACT & 3) != NO_RULE) {
+                    decision = r >> EXACT & 3;
+                }
+            }
+            if (i == len) {
+                break;
+            }
+            int next = base[node] + className.charAt(i);
+            if (next >= check.length || check[next] != node + 1) {
+                break;
+            }
+            node = next;
+        }
+        return decision == NO_RULE ? acceptUnmatched : decision == INCLUDE;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Node of the trie during construction.
+     */
+    private static final class TrieNode {
+
+        final TreeMap<Character, TrieNode> children = new TreeMap<>();
+        byte rules;
+        int index;
+    }
+}
@@ -27,6 +27,7 @@ package jla.format;
  */
 
 import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
 import jla.filter.IFilter;
 import jla.util.FilteredIterator;
 import jla.util.SequentialIterator;
@@ -40,6 +41,8 @@ import soot.SootClass;
  */
 public abstract class AbstractClassFormatter implements IClassFormatter {
 
+    private static final LongAdder MEMBERS_FORMATTED = new LongAdder();
+
     private final IMemberFormatter memberFormat;
     private final IFilter<ClassMember> memberFilter;
 
@@ -121,19 +124,35 @@ public abstract class AbstractClassFormatter implements IClassFormatter {
 
     @Override
     public final String format(SootClass clazz) {
+        StringBuilder builder = new StringBuilder();
+        return appendTo(clazz, builder) ? builder.toString() : null;
+    }
+
+    @Override
+    public final boolean appendTo(SootClass clazz, StringBuilder out) {
         Iterator<ClassMember> members = getMembers(clazz);
         if (!members.hasNext()) {
-            return null;
+            return false;
         }
 
-        StringBuilder builder = new StringBuilder();
-        builder.append(formatHeader(clazz));
+        out.append(formatHeader(clazz));
+        long count = 0;
         while (members.hasNext()) {
             ClassMember m = members.next();
-            builder.append(memberFormat.format(clazz, m));
+            memberFormat.appendTo(clazz, m, out);
+            count++;
         }
-        builder.append(formatFooter(clazz));
-        return builder.toString();
+        out.append(formatFooter(clazz));
+        MEMBERS_FORMATTED.add(count);
+        return true;
+    }
+
+    /**
+     * @return total number of members formatted by all instances of
+     *         {@link AbstractClassFormatter} in this JVM
+     */
+    public static long membersFormatted() {
+        return MEMBERS_FORMATTED.sum();
     }
 
     private Iterator<ClassMember> getMembers(SootClass clazz) {
@@ -195,6 +195,163 @@ public final class FormatHelpers {
             }
         }
 
+        /**
+         * Appends the same String as {@link #getAccessModifier(SootClass)}.
+         *
+         * @param c
+         * @param out
+         */
+        public static void appendAccessModifier(SootClass c, StringBuilder out) {
+            appendModifiers(c.getModifiers() & ACCESS_MODIFIERS, out);
+        }
+
+        /**
+         * Appends the same String as {@link #getAccessModifier(ClassMember)}.
+         *
+         * @param m
+         * @param out
+         */
+        public static void appendAccessModifier(ClassMember m, StringBuilder out) {
+            appendModifiers(m.getModifiers() & ACCESS_MODIFIERS, out);
+        }
+
+        /**
+         * Appends the same String as
+         * {@link #getNonAccessModifiers(SootClass)}.
+         *
+         * @param c
+         * @param out
+         */
+        public static void appendNonAccessModifiers(SootClass c, StringBuilder out) {
+            appendModifiers(c.getModifiers() & ~ACCESS_MODIFIERS, out);
+        }
+
+        /**
+         * Appends the same String as
+         * {@link #getNonAccessModifiers(ClassMember)}.
+         *
+         * @param m
+         * @param out
+         */
+        public static void appendNonAccessModifiers(ClassMember m, StringBuilder out) {
+            int mods = m.getModifiers() & ~ACCESS_MODIFIERS;
+            if (m instanceof SootMethod) {
+                mods &= ~(Modifier.TRANSIENT | Modifier.VOLATILE);
+            }
+            appendModifiers(mods, out);
+        }
+
+        /**
+         * Appends the same String as {@link Modifier#toString(int)} without
+         * creating any intermediate objects.
+         *
+         * @param mods
+         * @param out
+         */
+        public static void appendModifiers(int mods, StringBuilder out) {
+            final int start = out.length();
+            //NOTE: only one access modifier is printed
+            if (Modifier.isPublic(mods)) {
+                out.append("public");
+            } else if (Modifier.isPrivate(mods)) {
+                out.append("private");
+            } else if (Modifier.isProtected(mods)) {
+                out.append("protected");
+            }
+            appendIf(Modifier.isAbstract(mods), "abstract", start, out);
+            appendIf(Modifier.isStatic(mods), "static", start, out);
+            appendIf(Modifier.isFinal(mods), "final", start, out);
+            appendIf(Modifier.isSynchronized(mods), "synchronized", start, out);
+            appendIf(Modifier.isNative(mods), "native", start, out);
+            appendIf(Modifier.isTransient(mods), "transient", start, out);
+            appendIf(Modifier.isVolatile(mods), "volatile", start, out);
+            appendIf(Modifier.isStrictFP(mods), "strictfp", start, out);
+            appendIf(Modifier.isAnnotation(mods), "annotation", start, out);
+            appendIf(Modifier.isEnum(mods), "enum", start, out);
+            appendIf(Modifier.isInterface(mods), "interface", start, out);
+        }
+
+        private static void appendIf(boolean cond, String word, int start, StringBuilder out) {
+            if (cond) {
+                if (out.length() > start) {
+                    out.append(' ');
+                }
+                out.append(word);
+            }
+        }
+
+        /**
+         * Appends the same String as {@link #getClassName(SootClass)}.
+         *
+         * @param c
+         * @param out
+         */
+        public static void appendClassName(SootClass c, StringBuilder out) {
+            appendTypeName(c.getType(), out);
+        }
+
+        /**
+         * Appends the same String as {@link #getTypeName(Type)}.
+         *
+         * @param t
+         * @param out
+         */
+        public static void appendTypeName(Type t, StringBuilder out) {
+            //NOTE: ArrayType builds a new String in every call to toString()
+            if (t instanceof ArrayType) {
+                ArrayType at = (ArrayType) t;
+                out.append(at.baseType.toString());
+                for (int i = 0; i < at.numDimensions; i++) {
+                    out.append("[]");
+                }
+            } else {
+                out.append(t.toString());
+            }
+        }
+
+        /**
+         * Appends the same String as {@link #getReturnType(ClassMember)}.
+         *
+         * @param m
+         * @param out
+         */
+        public static void appendReturnType(ClassMember m, StringBuilder out) {
+            if (m instanceof SootField) {
+                appendTypeName(((SootField) m).getType(), out);
+            } else if (m instanceof SootMethod) {
+                SootMethod method = (SootMethod) m;
+                if (method.isStaticInitializer() || method.isConstructor()) {
+                    out.append("void");
+                } else {
+                    appendTypeName(method.getReturnType(), out);
+                }
+            } else {
+                throw new UnsupportedOperationException("The type " + m.getClass() + " is not supported.");
+            }
+        }
+
+        /**
+         * Appends the same String as {@link #getParameterList(ClassMember)}.
+         *
+         * @param m
+         * @param out
+         */
+        public static void appendParameterList(ClassMember m, StringBuilder out) {
+            if (m instanceof SootField) {
+                //no parameters
+            } else if (m instanceof SootMethod) {
+                SootMethod method = (SootMethod) m;
+                for (int i = 0, e = method.getParameterCount(); i < e; i++) {
+                    if (i > 0) {
+                        out.append(',');
+                    }
+                    appendTypeName(method.getParameterType(i), out);
+                }
+            } else {
+                throw new UnsupportedOperationException("The type " + m.getClass() + " is not supported.");
+            }
+        }
+
         /**
          * Private constructor to prevent instance creation.
          */
@@ -49,6 +49,25 @@ public interface IClassFormatter {
      */
     public String format(SootClass clazz);
 
+    /**
+     * Appends the same String as {@link #format(SootClass)} to the given
+     * {@link StringBuilder} so callers can reuse one buffer for many classes.
+     *
+     * @param clazz
+     * @param out
+     *
+     * @return {@code false} iff there is no output for the given class (i.e.
+     *         {@link #format(SootClass)} would return {@code null})
+     */
+    public default boolean appendTo(SootClass clazz, StringBuilder out) {
+        String s = format(clazz);
+        if (s == null) {
+            return false;
+        }
+        out.append(s);
+        return true;
+    }
+
     /**
      * Gives an optional filename suffix to be inserted before the extension.
      *
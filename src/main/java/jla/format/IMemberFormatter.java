@@ -45,4 +45,17 @@ public interface IMemberFormatter {
      * @return
      */
     public String format(SootClass clazz, ClassMember member);
+
+    /**
+     * Appends the same String as {@link #format(SootClass, ClassMember)} to
+     * the given {@link StringBuilder}. Implementations should override this
+     * to avoid creating a new String for every member.
+     *
+     * @param clazz
+     * @param member
+     * @param out
+     */
+    public default void appendTo(SootClass clazz, ClassMember member, StringBuilder out) {
+        out.append(format(clazz, member));
+    }
 }
@@ -41,85 +41,81 @@ import soot.SootMethod;
  */
 public class CSVDetailFormatter extends CSVFormatter {
 
-    /**
-     * Part of the format string that is identical for both Methods and Fields.
-     *
-     * NOTE: All properties shared between methods and fields are listed first
-     * so that the columns align if both methods and fields are printed
-     * together.
-     */
-    private static final String SHARED_FORMAT = "\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\"";
+    private static final String EOL = System.lineSeparator();
 
     /**
-     * Format string for Methods. Arguments are as follows:
+     * Formats rows for Methods and Fields. The columns are as follows:
      * <ul>
-     * <li>0 - Class Access Modifier</li>
-     * <li>1 - Other Class Modifiers</li>
-     * <li>2 - Class Name</li>
-     * <li>3 - Method Access Modifier</li>
-     * <li>4 - Other Method Modifiers</li>
-     * <li>5 - Return Type</li>
-     * <li>6 - Method Name</li>
-     *
-     * <li>7 - Is Varargs Method?</li>
-     * <li>8 - Is Synthetic Method?</li>
-     * <li>9 - Is Bridge Method?</li>
-     * <li>10 - Parameter Types</li>
+     * <li>0 - M for Methods or F for Fields</li>
+     * <li>1 - Class Access Modifier</li>
+     * <li>2 - Other Class Modifiers</li>
+     * <li>3 - Class Name</li>
+     * <li>4 - Member Access Modifier</li>
+     * <li>5 - Other Member Modifiers</li>
+     * <li>6 - Return Type or Field Type</li>
+     * <li>7 - Member Name</li>
      * </ul>
-     *
-     * NOTE: Skip the bridge flag because it cannot apply to Constructor only to
-     * Method
-     */
-    private static final String METHOD_FORMAT = "M," + SHARED_FORMAT + ",%d,%d,%d,\"%s\"%n";
-
-    /**
-     * Format string for Fields. Arguments are as follows:
+     * and then for Methods only:
      * <ul>
-     * <li>0 - Class Access Modifier</li>
-     * <li>1 - Other Class Modifiers</li>
-     * <li>2 - Class Name</li>
-     * <li>3 - Field Access Modifier</li>
-     * <li>4 - Other Field Modifiers</li>
-     * <li>5 - Type</li>
-     * <li>6 - Field Name</li>
+     * <li>8 - Is Varargs Method?</li>
+     * <li>9 - Is Synthetic Method?</li>
+     * <li>10 - Is Bridge Method?</li>
+     * <li>11 - Parameter Types</li>
      * </ul>
-     */
-    private static final String FIELD_FORMAT = "F," + SHARED_FORMAT + "%n";
-
-    /**
      *
+     * NOTE: All properties shared between methods and fields are listed first
+     * so that the columns align if both methods and fields are printed
+     * together.
      */
     private static final IMemberFormatter MEMBER_FORMATTER = new IMemberFormatter() {
         @Override
         public String format(SootClass c, ClassMember membr) {
+            StringBuilder b = new StringBuilder();
+            appendTo(c, membr, b);
+            return b.toString();
+        }
+
+        @Override
+        public void appendTo(SootClass c, ClassMember membr, StringBuilder out) {
             if (membr instanceof SootField) {
-                return String.format(FIELD_FORMAT,
-                        Soot.getAccessModifier(c),
-                        Soot.getNonAccessModifiers(c),
-                        Soot.getClassName(c),
-                        Soot.getAccessModifier(membr),
-                        Soot.getNonAccessModifiers(membr),
-                        Soot.getReturnType(membr),
-                        Soot.getMemberName(membr)
-                );
+                out.append("F,");
+                appendShared(c, membr, out);
             } else if (membr instanceof SootMethod) {
                 SootMethod m = (SootMethod) membr;
-                return String.format(METHOD_FORMAT,
-                        Soot.getAccessModifier(c),
-                        Soot.getNonAccessModifiers(c),
-                        Soot.getClassName(c),
-                        Soot.getAccessModifier(membr),
-                        Soot.getNonAccessModifiers(membr),
-                        Soot.getReturnType(membr),
-                        Soot.getMemberName(membr),
-                        Soot.isVargs(m) ? 1 : 0,
-                        Soot.isSynthetic(m) ? 1 : 0,
-                        Soot.isBridge(m) ? 1 : 0,
-                        Soot.getParameterList(membr)
-                );
+                out.append("M,");
+                appendShared(c, membr, out);
+                out.append(',').append(Soot.isVargs(m) ? '1' : '0');
+                out.append(',').append(Soot.isSynthetic(m) ? '1' : '0');
+                out.append(',').append(Soot.isBridge(m) ? '1' : '0');
+                out.append(",\"");
+                Soot.appendParameterList(membr, out);
+                out.append('"');
             } else {
                 throw new IllegalArgumentException(membr.getClass().getName());
             }
+            out.append(EOL);
+        }
+
+        /**
+         * Appends the quoted columns that are identical for both Methods and
+         * Fields.
+         */
+        private void appendShared(SootClass c, ClassMember membr, StringBuilder out) {
+            out.append('"');
+            Soot.appendAccessModifier(c, out);
+            out.append("\",\"");
+            Soot.appendNonAccessModifiers(c, out);
+            out.append("\",\"");
+            Soot.appendClassName(c, out);
+            out.append("\",\"");
+            Soot.appendAccessModifier(membr, out);
+            out.append("\",\"");
+            Soot.appendNonAccessModifiers(membr, out);
+            out.append("\",\"");
+            Soot.appendReturnType(membr, out);
+            out.append("\",\"");
+            out.append(Soot.getMemberName(membr));
+            out.append('"');
         }
     };
 
@@ -140,7 +136,7 @@ public class CSVDetailFormatter extends CSVFormatter {
 
     @Override
     public String header() {
-        return ",CLASS,CLASS,CLASS,M/F,M/F,M/F Type,M/F Name,varg,syn,bridge,params" + System.lineSeparator();
+        return ",CLASS,CLASS,CLASS,M/F,M/F,M/F Type,M/F Name,varg,syn,bridge,params" + EOL;
     }
 
     @Override
@@ -42,54 +42,43 @@ import soot.SootMethod;
  */
 public class CSVFormatter extends AbstractClassFormatter {
 
-    /**
-     * Format string for the insert statements. Arguments are as follows:
-     * <ul>
-     * <li>0 - Class Name</li>
-     * <li>1 - Return Type</li>
-     * <li>2 - Method Name</li>
-     * <li>3 - Parameter Types</li>
-     * </ul>
-     */
-    private static final String METHOD_FORMAT = "\"%s\",\"%s %s(%s)\"%n";
-
-    /**
-     * Format string for the insert statements. Arguments are as follows:
-     * <ul>
-     * <li>0 - Class Name</li>
-     * <li>1 - Type</li>
-     * <li>2 - Field Name</li>
-     * </ul>
-     */
-    private static final String FIELD_FORMAT = "\"%s\",\"%s %s\"%n";
+    private static final String EOL = System.lineSeparator();
 
     /**
-     *
+     * Method rows have the form {@code "<class>","<return> <name>(<params>)"}
+     * and field rows have the form {@code "<class>","<type> <name>"}.
      */
     private static final IMemberFormatter MEMBER_FORMATTER = new IMemberFormatter() {
 
         @Override
         public String format(SootClass c, ClassMember m) {
-            if (m instanceof SootField) {
-                return String.format(FIELD_FORMAT,
-                        Soot.getClassName(c),
-                        Soot.getReturnType(m),
-                        Soot.getMemberName(m));
-            } else if (m instanceof SootMethod) {
-                return String.format(METHOD_FORMAT,
-                        Soot.getClassName(c),
-                        Soot.getReturnType(m),
-                        Soot.getMemberName(m),
-                        Soot.getParameterList(m));
-            } else {
+            StringBuilder b = new StringBuilder();
+            appendTo(c, m, b);
+            return b.toString();
+        }
+
+        @Override
+        public void appendTo(SootClass c, ClassMember m, StringBuilder out) {
+            if (!(m instanceof SootField) && !(m instanceof SootMethod)) {
                 throw new IllegalArgumentException(m.getClass().getName());
             }
+            out.append('"');
+            Soot.appendClassName(c, out);
+            out.append("\",\"");
+            Soot.appendReturnType(m, out);
+            out.append(' ').append(Soot.getMemberName(m));
+            if (m instanceof SootMethod) {
+                out.append('(');
+                Soot.appendParameterList(m, out);
+                out.append(')');
+            }
+            out.append('"').append(EOL);
         }
     };
 
     @Override
     public String header() {
-        return "class,method/field sig" + System.lineSeparator();
+        return "class,method/field sig" + EOL;
     }
 
     @Override
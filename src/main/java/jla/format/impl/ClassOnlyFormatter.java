@@ -48,7 +48,21 @@ public class ClassOnlyFormatter extends AbstractClassFormatter {
 
         @Override
         public String format(SootClass c, @Deprecated ClassMember m) {
-            return Soot.getClassName(c).replaceAll("\\.", "/") + ".class\n";
+            StringBuilder b = new StringBuilder();
+            appendTo(c, m, b);
+            return b.toString();
+        }
+
+        @Override
+        public void appendTo(SootClass c, @Deprecated ClassMember m, StringBuilder out) {
+            final int start = out.length();
+            Soot.appendClassName(c, out);
+            for (int i = start, e = out.length(); i < e; i++) {
+                if (out.charAt(i) == '.') {
+                    out.setCharAt(i, '/');
+                }
+            }
+            out.append(".class\n");
         }
     };
 
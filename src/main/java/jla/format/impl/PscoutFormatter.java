@@ -43,30 +43,30 @@ import soot.SootMethod;
  */
 public class PscoutFormatter extends AbstractClassFormatter {
 
-    /**
-     * Format string for the insert statements. Arguments are as follows:
-     * <ul>
-     * <li>0 - Class Name</li>
-     * <li>1 - Return Type</li>
-     * <li>2 - Method Name</li>
-     * <li>3 - Parameter Types</li>
-     * </ul>
-     */
-    private static final String INSERT_STMT_FORMAT = "<%s: %s %s(%s)> %n";
+    private static final String EOL = System.lineSeparator();
 
     /**
-     *
+     * Rows have the form {@code <<class>: <return> <name>(<params>)> }.
      */
     private static final IMemberFormatter MEMBER_FORMATTER = new IMemberFormatter() {
 
         @Override
         public String format(SootClass c, ClassMember m) {
+            StringBuilder b = new StringBuilder();
+            appendTo(c, m, b);
+            return b.toString();
+        }
+
+        @Override
+        public void appendTo(SootClass c, ClassMember m, StringBuilder out) {
             if (m instanceof SootMethod) {
-                return String.format(INSERT_STMT_FORMAT,
-                        Soot.getClassName(c),
-                        Soot.getReturnType(m),
-                        Soot.getMemberName(m),
-                        Soot.getParameterList(m));
+                out.append('<');
+                Soot.appendClassName(c, out);
+                out.append(": ");
+                Soot.appendReturnType(m, out);
+                out.append(' ').append(Soot.getMemberName(m)).append('(');
+                Soot.appendParameterList(m, out);
+                out.append(")> ").append(EOL);
             } else {
                 throw new IllegalArgumentException(m.getClass().getName());
             }
@@ -0,0 +1,207 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import jla.format.AbstractClassFormatter;
+import jla.resolve.SootSceneResolver;
+
+/**
+ * The {@link AnalysisMetricsMXBean} of {@link Analyzer}. Unlike
+ * {@link Instrumentation}, the counters are always updated since each update
+ * is a single {@link LongAdder} increment or volatile write.
+ *
+ * @author Timothy Hoffman
+ */
+final class AnalysisMetrics implements AnalysisMetricsMXBean {
+
+    private final LongAdder enumerated = new LongAdder();
+    private final LongAdder resolved = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder printed = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final CopyOnWriteArrayList<BlockingQueue<?>> nameQueues = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<BlockingQueue<?>> outputQueues = new CopyOnWriteArrayList<>();
+    private volatile String currentClass = null;
+    private volatile long currentStart = 0;//0 when no class is being resolved
+    private volatile long startNanos;
+    private volatile long membersBaseline;
+    private volatile long rebuildsBaseline;
+
+    AnalysisMetrics() {
+        reset();
+    }
+
+    void enumerated() {
+        enumerated.increment();
+    }
+
+    /**
+     * Marks the start of resolving the given class.
+     *
+     * @param className
+     */
+    void resolving(String className) {
+        currentClass = className;
+        currentStart = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of resolving the current class.
+     *
+     * @param success {@code false} if the class could not be loaded
+     */
+    void resolved(boolean success) {
+        currentStart = 0;
+        (success ? resolved : failed).increment();
+    }
+
+    /**
+     * @param format the formatted class passed to an
+     *               {@link jla.print.IPrinter}
+     */
+    void printed(String format) {
+        printed.increment();
+        bytesWritten.add(format.length());
+    }
+
+    /**
+     * Adds the queues of a running {@link Pipeline} to the queue depths.
+     *
+     * @param names
+     * @param output
+     */
+    void addQueues(BlockingQueue<?> names, BlockingQueue<?> output) {
+        nameQueues.add(names);
+        outputQueues.add(output);
+    }
+
+    /**
+     * Removes the queues of a {@link Pipeline} that is finished.
+     *
+     * @param names
+     * @param output
+     */
+    void removeQueues(BlockingQueue<?> names, BlockingQueue<?> output) {
+        nameQueues.remove(names);
+        outputQueues.remove(output);
+    }
+
+    @Override
+    public long getClassesEnumerated() {
+        return enumerated.sum();
+    }
+
+    @Override
+    public long getClassesResolved() {
+        return resolved.sum();
+    }
+
+    @Override
+    public long getClassesFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getClassesPrinted() {
+        return printed.sum();
+    }
+
+    @Override
+    public long getMembersEmitted() {
+        return AbstractClassFormatter.membersFormatted() - membersBaseline;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public int getNameQueueDepth() {
+        return depth(nameQueues);
+    }
+
+    @Override
+    public int getOutputQueueDepth() {
+        return depth(outputQueues);
+    }
+
+    private static int depth(Iterable<BlockingQueue<?>> queues) {
+        int depth = 0;
+        for (BlockingQueue<?> q : queues) {
+            depth += q.size();
+        }
+        return depth;
+    }
+
+    @Override
+    public String getCurrentClass() {
+        return currentClass;
+    }
+
+    @Override
+    public long getCurrentClassMillis() {
+        long start = currentStart;
+        return (start == 0) ? 0 : (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @Override
+    public double getClassesPerSecond() {
+        long nanos = System.nanoTime() - startNanos;
+        return (nanos <= 0) ? 0 : resolved.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public int getSceneClasses() {
+        //NOTE: do not initialize Soot when another resolver is used
+        return (Analyzer.resolver() instanceof SootSceneResolver) ? SootSceneResolver.scene().getClasses().size() : 0;
+    }
+
+    @Override
+    public long getSceneRebuilds() {
+        return SootSceneResolver.rebuilds() - rebuildsBaseline;
+    }
+
+    @Override
+    public void reset() {
+        enumerated.reset();
+        resolved.reset();
+        failed.reset();
+        printed.reset();
+        bytesWritten.reset();
+        membersBaseline = AbstractClassFormatter.membersFormatted();
+        rebuildsBaseline = SootSceneResolver.rebuilds();
+        startNanos = System.nanoTime();
+    }
+}
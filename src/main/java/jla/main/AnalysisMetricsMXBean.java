@@ -0,0 +1,133 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+/**
+ * Live counters of the analysis, registered by {@link Analyzer} with the
+ * platform MBean server as {@value Analyzer#METRICS_NAME} so a running
+ * analysis can be watched via jconsole or any other JMX client.
+ *
+ * The counters start when {@link Analyzer} is loaded and accumulate over all
+ * analyses in the JVM until {@link #reset()} is called.
+ *
+ * @author Timothy Hoffman
+ */
+public interface AnalysisMetricsMXBean {
+
+    /**
+     * @return number of class names taken from an
+     *         {@link jla.analyzer.IClassHolder}
+     */
+    public long getClassesEnumerated();
+
+    /**
+     * @return number of classes loaded via the
+     *         {@link jla.resolve.IClassResolver}
+     */
+    public long getClassesResolved();
+
+    /**
+     * @return number of classes that could not be loaded
+     */
+    public long getClassesFailed();
+
+    /**
+     * NOTE: When several formatters are used in a single pass, each class is
+     * printed once per formatter.
+     *
+     * @return number of formatted classes passed to an
+     *         {@link jla.print.IPrinter}
+     */
+    public long getClassesPrinted();
+
+    /**
+     * NOTE: Only formatters extending
+     * {@link jla.format.AbstractClassFormatter} are counted and output taken
+     * from the {@link OutputCache} is not formatted again.
+     *
+     * @return number of members formatted
+     */
+    public long getMembersEmitted();
+
+    /**
+     * @return number of characters passed to an {@link jla.print.IPrinter}
+     *         (i.e. bytes written for ASCII output, excluding headers)
+     */
+    public long getBytesWritten();
+
+    /**
+     * @return number of class names waiting to be resolved in all running
+     *         {@link Pipeline Pipelines}
+     */
+    public int getNameQueueDepth();
+
+    /**
+     * @return number of classes waiting to be formatted or printed in all
+     *         running {@link Pipeline Pipelines}
+     */
+    public int getOutputQueueDepth();
+
+    /**
+     * @return name of the class being resolved or the last one resolved
+     */
+    public String getCurrentClass();
+
+    /**
+     * A value that keeps growing indicates a stalled analysis.
+     *
+     * @return milliseconds spent resolving the current class so far or 0 if
+     *         no class is being resolved
+     */
+    public long getCurrentClassMillis();
+
+    /**
+     * @return milliseconds since the counters were started or reset
+     */
+    public long getElapsedMillis();
+
+    /**
+     * @return classes resolved per second since the counters were started or
+     *         reset
+     */
+    public double getClassesPerSecond();
+
+    /**
+     * @return number of classes in the current Soot {@link soot.Scene} or 0
+     *         if the classes are not resolved via Soot
+     */
+    public int getSceneClasses();
+
+    /**
+     * @return number of times the Soot {@link soot.Scene} was rebuilt (see
+     *         {@link jla.resolve.SootSceneResolver#setMaxClasses(int)})
+     */
+    public long getSceneRebuilds();
+
+    /**
+     * Sets all counters back to 0 and restarts the elapsed time.
+     */
+    public void reset();
+}
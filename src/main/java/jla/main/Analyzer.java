@@ -26,7 +26,19 @@ package jla.main;
  * #L%
  */
 
-import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import jla.analyzer.IClassHolder;
 import jla.filter.IFilter;
 import jla.format.IClassFormatter;
@@ -36,10 +48,12 @@ import jla.format.impl.ClassOnlyFormatter;
 import jla.format.impl.PscoutFormatter;
 import jla.print.FilePrinter;
 import jla.print.IPrinter;
+import jla.print.IPrinterFactory;
+import jla.resolve.ClassLocator;
+import jla.resolve.IClassResolver;
+import jla.resolve.SootSceneResolver;
 import soot.ClassMember;
-import soot.Scene;
 import soot.SootClass;
-import soot.options.Options;
 
 /**
  * Prints an {@link IClassHolder} to an {@link IPrinter} formatted as defined by
@@ -51,21 +65,36 @@ public class Analyzer {
 
     public static final boolean DEBUG = false;
 
-    private static final Scene SOOT_SCENE;
+    /**
+     * The {@link ObjectName} of the {@link AnalysisMetricsMXBean}.
+     */
+    public static final String METRICS_NAME = "jla:type=Analyzer";
 
-    static {
-        final Options opts = Options.v();
-        opts.set_drop_bodies_after_load(true);//clear up memory
-        opts.set_full_resolver(false);//resolve only on demand
-        opts.set_allow_phantom_refs(false);//don't swallow errors
-        opts.set_no_bodies_for_excluded(false);//otherwise, allows phandom refs
-        opts.set_permissive_resolving(false);//don't swallow errors
-        opts.set_include_all(true);//empty default excluded packages list
-//        opts.set_debug_resolver(true);
+    private static final AnalysisMetrics METRICS = registerMetrics();
 
-        //NOTE: options must be set before initializing the Scene
-        SOOT_SCENE = Scene.v();
-    }
+    private static volatile Pipeline PIPELINE = null;
+
+    private static volatile IClassResolver RESOLVER = SootSceneResolver.INST;
+
+    /**
+     * Serializes {@link #resolve(String)} since neither Soot nor the
+     * {@link IClassResolver} implementations are thread-safe.
+     */
+    private static final Object RESOLVE_LOCK = new Object();
+
+    private static volatile OutputCache CACHE = null;
+    private static volatile Instrumentation INSTRUMENTATION = null;
+    private static volatile IPrinterFactory PRINTERS = FilePrinter::new;
+
+    /**
+     * Buffer reused by each thread for the output of one class (see
+     * {@link #format(IClassFormatter, SootClass)}).
+     */
+    private static final ThreadLocal<StringBuilder> FORMAT_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+    private static final int MAX_FORMAT_BUFFER = 1 << 20;
+
+    private static List<String> CLASSPATH = null;
+    private static ClassLocator LOCATOR = null;
 
     /**
      *
@@ -91,14 +120,171 @@ public class Analyzer {
 
     /**
      *
-     * @param paths
+     * @param paths the classpath or {@code null} for the default classpath of
+     *              the current JVM
      */
-    public static void setClasspath(Iterable<String> paths) {
-        StringBuilder sb = new StringBuilder();
-        for (String s : paths) {
-            sb.append(s).append(File.pathSeparatorChar);
+    public static synchronized void setClasspath(Iterable<String> paths) {
+        if (paths == null) {
+            CLASSPATH = null;
+        } else {
+            ArrayList<String> list = new ArrayList<>();
+            for (String s : paths) {
+                list.add(s);
+            }
+            CLASSPATH = Collections.unmodifiableList(list);
+        }
+        if (LOCATOR != null) {
+            LOCATOR.close();
+            LOCATOR = null;
         }
-        SOOT_SCENE.setSootClassPath(sb.toString());
+        RESOLVER.setClasspath(CLASSPATH);
+        if (CACHE != null) {
+            CACHE.setClasspath(CLASSPATH);
+        }
+    }
+
+    /**
+     * Sets the {@link IClassResolver} used to obtain each class. The default
+     * is {@link SootSceneResolver#INST}.
+     *
+     * @param resolver
+     */
+    public static synchronized void setResolver(IClassResolver resolver) {
+        if (resolver == null) {
+            throw new IllegalArgumentException("Parameters cannot be null!");
+        }
+        resolver.setClasspath(CLASSPATH);
+        RESOLVER = resolver;
+    }
+
+    /**
+     * @return the current {@link IClassResolver}
+     */
+    static IClassResolver resolver() {
+        return RESOLVER;
+    }
+
+    /**
+     * Sets the {@link OutputCache} used by all {@code print} methods.
+     *
+     * @param cache the {@link OutputCache} to use or {@code null} to always
+     *              resolve and format every class
+     */
+    public static synchronized void setCache(OutputCache cache) {
+        if (cache != null) {
+            cache.setClasspath(CLASSPATH);
+        }
+        CACHE = cache;
+    }
+
+    /**
+     * Sets the {@link Instrumentation} that records the time spent in each
+     * phase of the analysis of each class.
+     *
+     * @param instrumentation the {@link Instrumentation} or {@code null} to
+     *                        disable instrumentation (the default)
+     */
+    public static void setInstrumentation(Instrumentation instrumentation) {
+        INSTRUMENTATION = instrumentation;
+    }
+
+    /**
+     * @return the current {@link Instrumentation} or {@code null} if none
+     */
+    static Instrumentation instrumentation() {
+        return INSTRUMENTATION;
+    }
+
+    /**
+     * @return the {@link AnalysisMetrics} registered as {@link #METRICS_NAME}
+     */
+    static AnalysisMetrics metrics() {
+        return METRICS;
+    }
+
+    private static AnalysisMetrics registerMetrics() {
+        AnalysisMetrics metrics = new AnalysisMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(METRICS_NAME));
+        } catch (JMException | SecurityException ex) {
+            //ex: already registered by another class loader
+            System.err.println("[Analyzer] Unable to register " + METRICS_NAME + " -> " + ex);
+        }
+        return metrics;
+    }
+
+    /**
+     * Sets the {@link IPrinterFactory} used by the {@code print} methods that
+     * are not given an {@link IPrinter}. The default creates a
+     * {@link FilePrinter}.
+     *
+     * @param printers
+     */
+    public static void setPrinterFactory(IPrinterFactory printers) {
+        if (printers == null) {
+            throw new IllegalArgumentException("Parameters cannot be null!");
+        }
+        PRINTERS = printers;
+    }
+
+    /**
+     * @param fileName
+     *
+     * @return a new {@link IPrinter} for the given file from the current
+     *         {@link IPrinterFactory}
+     */
+    public static IPrinter createPrinter(String fileName) {
+        return PRINTERS.create(fileName);
+    }
+
+    /**
+     * @param className
+     *
+     * @return the classpath entry containing the given class (for the default
+     *         classpath, the jar file, directory, or runtime image module) or
+     *         {@code null} if the class cannot be found
+     */
+    public static synchronized String findSource(String className) {
+        if (CLASSPATH == null) {
+            URL url = ClassLoader.getSystemResource(ClassLocator.toFileName(className));
+            return url == null ? null : sourceOf(url, className);
+        }
+        if (LOCATOR == null) {
+            LOCATOR = new ClassLocator(CLASSPATH);
+        }
+        return LOCATOR.findSource(className);
+    }
+
+    private static String sourceOf(URL url, String className) {
+        String s = url.toString();
+        switch (url.getProtocol()) {
+            case "jar": {
+                //ex: "jar:file:/x/rt.jar!/java/lang/Object.class"
+                int bang = s.indexOf("!/");
+                return bang < 0 ? null : s.substring("jar:".length(), bang);
+            }
+            case "jrt": {
+                //ex: "jrt:/java.base/java/lang/Object.class"
+                String path = url.getPath();
+                int slash = path.indexOf('/', 1);
+                return slash < 0 ? null : path.substring(1, slash);
+            }
+            default: {
+                //ex: "file:/x/classes/a/B.class"
+                int end = s.length() - ClassLocator.toFileName(className).length();
+                return end > 0 ? s.substring(0, end) : null;
+            }
+        }
+    }
+
+    /**
+     * Sets the {@link Pipeline} used by all {@code print} methods.
+     *
+     * @param pipeline the {@link Pipeline} to use or {@code null} to analyze
+     *                 all classes sequentially on the calling thread
+     */
+    public static void setPipeline(Pipeline pipeline) {
+        PIPELINE = pipeline;
     }
 
     /**
@@ -107,40 +293,319 @@ public class Analyzer {
      * @param printer
      */
     public static void print(IClassHolder classes, IClassFormatter formatter, IPrinter printer) {
+        print(classes, new IClassFormatter[]{formatter}, new IPrinter[]{printer});
+    }
+
+    /**
+     * Prints the classes with several formatters in a single pass, i.e. each
+     * class is enumerated and resolved once and then formatted by every
+     * formatter and printed to the {@link IPrinter} of that formatter. When a
+     * {@link Pipeline} is set, the formatters run concurrently.
+     *
+     * @param classes
+     * @param outputs the {@link IPrinter} for each {@link IClassFormatter}
+     *                (ex: a {@link java.util.LinkedHashMap})
+     */
+    public static void print(IClassHolder classes, Map<IClassFormatter, IPrinter> outputs) {
+        if (classes == null || outputs == null || outputs.containsKey(null) || outputs.containsValue(null)) {
+            throw new IllegalArgumentException("Parameters cannot be null!");
+        }
+        IClassFormatter[] formatters = outputs.keySet().toArray(new IClassFormatter[outputs.size()]);
+        IPrinter[] printers = new IPrinter[formatters.length];
+        for (int i = 0; i < formatters.length; i++) {
+            printers[i] = outputs.get(formatters[i]);
+        }
+        print(classes, formatters, printers);
+    }
+
+    private static void print(IClassHolder classes, IClassFormatter[] formatters, IPrinter[] printers) {
+        Pipeline pipeline = PIPELINE;
+        if (pipeline != null) {
+            pipeline.print(classes, formatters, printers);
+            return;
+        }
+        int opened = 0;
         try {
-            printer.open();
-            {
-                String header = formatter.header();
+            for (; opened < printers.length; opened++) {
+                printers[opened].open();
+                String header = formatters[opened].header();
                 if (header != null && !header.isEmpty()) {
-                    printer.print(header);
+                    printers[opened].print(header);
                 }
             }
-            for (String className : classes) {
-                if (Analyzer.DEBUG) {
-                    System.out.println("[Analyzer] Printing class: " + className);
+            final OutputCache cache = CACHE;
+            final OutputCache.Entry[] cached = new OutputCache.Entry[formatters.length];
+            Iterator<String> names = names(classes);
+            while (names.hasNext()) {
+                String className = names.next();
+                //NOTE: same as the Pipeline, a class that cannot be resolved
+                //  is skipped by all formatters, even those with cached output
+                boolean allHits = true;
+                for (int i = 0; i < formatters.length; i++) {
+                    cached[i] = (cache == null) ? null : cache.lookup(className, formatters[i]);
+                    allHits &= cached[i] != null && cached[i].isHit();
                 }
-                SootClass clazz;
-                try {
-                    clazz = SOOT_SCENE.loadClassAndSupport(className);
-                } catch (Exception | Error ex) {
-                    System.out.println("[Analyzer] Unable to find class " + className + " -> " + ex);
-                    if (Analyzer.DEBUG) {
-                        ex.printStackTrace(System.out);
-                    }
+                //NOTE: the previous classes are already formatted and printed
+                SootClass clazz = allHits ? null : resolveAfterRelease(className);
+                if (clazz == null && !allHits) {
                     continue;
                 }
+                for (int i = 0; i < formatters.length; i++) {
+                    String format;
+                    if (cached[i] != null && cached[i].isHit()) {
+                        format = cached[i].value();
+                    } else {
+                        //if the class is found without exception, then format and print it
+                        format = format(formatters[i], clazz);
+                        if (cached[i] != null) {
+                            cached[i].store(format);
+                        }
+                    }
+                    if (format != null) {
+                        print(printers[i], className, format);
+                    }
+                }
+            }
+        } finally {
+            closeAll(printers, Math.min(opened + 1, printers.length));
+        }
+    }
 
-                //if the class is found without exception, then format and print it
-                String format = formatter.format(clazz);
-                if (format != null) {
-                    printer.print(format);
+    /**
+     * Closes the first {@code count} printers even if closing one fails.
+     *
+     * @param printers
+     * @param count
+     */
+    static void closeAll(IPrinter[] printers, int count) {
+        RuntimeException failure = null;
+        for (int i = 0; i < count; i++) {
+            try {
+                printers[i].close();
+            } catch (RuntimeException ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
                 }
             }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return the current {@link OutputCache} or {@code null} if none
+     */
+    static OutputCache cache() {
+        return CACHE;
+    }
+
+    /**
+     * @param classes
+     *
+     * @return an {@link Iterator} over the class names in the given
+     *         {@link IClassHolder} that records each name in the metrics and
+     *         the current {@link Instrumentation} (if any)
+     */
+    static Iterator<String> names(IClassHolder classes) {
+        final Instrumentation inst = INSTRUMENTATION;
+        final Iterator<String> names = (inst == null) ? classes.iterator() : inst.enumerate(classes.iterator());
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return names.hasNext();
+            }
+
+            @Override
+            public String next() {
+                String className = names.next();
+                METRICS.enumerated();
+                return className;
+            }
+        };
+    }
+
+    /**
+     * Loads the class with the given name via the current
+     * {@link IClassResolver}.
+     *
+     * NOTE: The {@link IClassResolver} is not required to be thread-safe so
+     * calls are serialized. Formatting the resulting {@link SootClass} does not
+     * resolve further classes and may happen concurrently.
+     *
+     * @param className
+     *
+     * @return the {@link SootClass} or {@code null} if it could not be loaded
+     */
+    static SootClass resolve(String className) {
+        return resolve(className, false);
+    }
+
+    /**
+     * Same as {@link #resolve(String)} but first releases the current
+     * {@link IClassResolver} if it {@link IClassResolver#isFull() is full}.
+     *
+     * NOTE: only call this when no class returned by a previous call is still
+     * in use (i.e. all of them have been formatted).
+     *
+     * @param className
+     *
+     * @return the resolved class or {@code null} if it cannot be resolved
+     */
+    static SootClass resolveAfterRelease(String className) {
+        return resolve(className, true);
+    }
+
+    private static SootClass resolve(String className, boolean release) {
+        if (Analyzer.DEBUG) {
+            System.out.println("[Analyzer] Printing class: " + className);
+        }
+        final Instrumentation inst = INSTRUMENTATION;
+        try {
+            synchronized (RESOLVE_LOCK) {
+                METRICS.resolving(className);
+                long start = (inst == null) ? 0 : inst.begin(Instrumentation.Phase.RESOLVE);
+                final IClassResolver resolver = RESOLVER;
+                if (release && resolver.isFull()) {
+                    resolver.release();
+                }
+                SootClass clazz = resolver.resolve(className);
+                if (inst != null) {
+                    inst.end(Instrumentation.Phase.RESOLVE, className, start);
+                }
+                METRICS.resolved(clazz != null);
+                return clazz;
+            }
+        } catch (Exception | Error ex) {
+            METRICS.resolved(false);
+            if (inst != null) {
+                inst.failed(className);
+            }
+            System.out.println("[Analyzer] Unable to find class " + className + " -> " + ex);
+            if (Analyzer.DEBUG) {
+                ex.printStackTrace(System.out);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Formats the class via {@link IClassFormatter#appendTo} into a buffer
+     * that is reused by the current thread, recording the time in the current
+     * {@link Instrumentation} (if any).
+     *
+     * @param formatter
+     * @param clazz
+     *
+     * @return the output of the formatter
+     */
+    static String format(IClassFormatter formatter, SootClass clazz) {
+        final Instrumentation inst = INSTRUMENTATION;
+        if (inst == null) {
+            return formatTo(formatter, clazz);
+        }
+        long start = inst.begin(Instrumentation.Phase.FORMAT);
+        String format = formatTo(formatter, clazz);
+        inst.end(Instrumentation.Phase.FORMAT, clazz.getName(), start);
+        return format;
+    }
+
+    private static String formatTo(IClassFormatter formatter, SootClass clazz) {
+        StringBuilder buffer = FORMAT_BUFFER.get();
+        try {
+            return formatter.appendTo(clazz, buffer) ? buffer.toString() : null;
         } finally {
-            printer.close();
+            if (buffer.capacity() > MAX_FORMAT_BUFFER) {
+                //do not keep an unusually large buffer alive
+                FORMAT_BUFFER.remove();
+            } else {
+                buffer.setLength(0);
+            }
         }
     }
 
+    /**
+     * Prints the formatted class, recording the time in the current
+     * {@link Instrumentation} (if any).
+     *
+     * @param printer
+     * @param className
+     * @param format
+     */
+    static void print(IPrinter printer, String className, String format) {
+        METRICS.printed(format);
+        final Instrumentation inst = INSTRUMENTATION;
+        if (inst == null) {
+            printer.print(className, format);
+            return;
+        }
+        long start = inst.begin(Instrumentation.Phase.PRINT);
+        printer.print(className, format);
+        inst.end(Instrumentation.Phase.PRINT, className, start);
+    }
+
+    /**
+     * Resolves the classes in the given {@link IClassHolder} lazily as the
+     * returned {@link Stream} is consumed. Classes that cannot be resolved are
+     * skipped.
+     *
+     * NOTE: resolution is serialized (see {@link #resolve(String)}) so a
+     * parallel {@link Stream} only helps when the downstream operations do a
+     * significant amount of work per class.
+     *
+     * @param classes
+     * @param parallel {@code true} for a parallel {@link Stream}
+     *
+     * @return the resolved classes
+     */
+    public static Stream<SootClass> classes(IClassHolder classes, boolean parallel) {
+        return classes.stream(parallel).peek(className -> METRICS.enumerated())
+                .map(Analyzer::resolve).filter(Objects::nonNull);
+    }
+
+    /**
+     * Same as {@link #print(IClassHolder, IClassFormatter, IPrinter)} except
+     * the formatted classes are returned as a lazy {@link Stream} rather than
+     * printed. The {@link IClassFormatter#header()} is not included.
+     *
+     * @param classes
+     * @param formatter
+     * @param parallel  {@code true} for a parallel {@link Stream}
+     *
+     * @return the non-{@code null} output of the formatter for each class
+     */
+    public static Stream<String> format(IClassHolder classes, IClassFormatter formatter, boolean parallel) {
+        final OutputCache cache = CACHE;
+        return classes.stream(parallel).peek(className -> METRICS.enumerated()).map(className -> {
+            OutputCache.Entry cached = (cache == null) ? null : cache.lookup(className, formatter);
+            if (cached != null && cached.isHit()) {
+                return cached.value();
+            }
+            SootClass clazz = resolve(className);
+            if (clazz == null) {
+                return null;
+            }
+            String format = format(formatter, clazz);
+            if (cached != null) {
+                cached.store(format);
+            }
+            return format;
+        }).filter(Objects::nonNull);
+    }
+
+    /**
+     * @param clazz
+     * @param filter
+     *
+     * @return the fields followed by the methods of the given class that are
+     *         accepted by the filter
+     */
+    public static Stream<ClassMember> members(SootClass clazz, IFilter<ClassMember> filter) {
+        return Stream.<ClassMember>concat(clazz.getFields().stream(), clazz.getMethods().stream()).filter(filter::accept);
+    }
+
     /**
      * @param classes
      * @param toGenerate
@@ -157,7 +622,7 @@ public class Analyzer {
      * @param formatter
      */
     public static void print(IClassHolder classes, IClassFormatter formatter) {
-        Analyzer.print(classes, formatter, new FilePrinter(fileName(classes, formatter)));
+        Analyzer.print(classes, formatter, createPrinter(fileName(classes, formatter)));
     }
 
     /**
@@ -169,6 +634,37 @@ public class Analyzer {
         Analyzer.print(classes, toFormatter(toGenerate, memberFilter));
     }
 
+    /**
+     * Generates all of the given output types in a single pass (see
+     * {@link #print(IClassHolder, Map)}) with one file per output type.
+     *
+     * @param classes
+     * @param toGenerate
+     * @param memberFilter
+     */
+    public static void print(IClassHolder classes, Set<OutputType> toGenerate, IFilter<ClassMember> memberFilter) {
+        print(classes, toGenerate, memberFilter, classes.name());
+    }
+
+    /**
+     * Same as {@link #print(IClassHolder, Set, IFilter)} but the output file
+     * names start with the given name instead of the name of the
+     * {@link IClassHolder}.
+     *
+     * @param classes
+     * @param toGenerate
+     * @param memberFilter
+     * @param baseName
+     */
+    public static void print(IClassHolder classes, Set<OutputType> toGenerate, IFilter<ClassMember> memberFilter, String baseName) {
+        LinkedHashMap<IClassFormatter, IPrinter> outputs = new LinkedHashMap<>();
+        for (OutputType type : toGenerate) {
+            IClassFormatter formatter = toFormatter(type, memberFilter);
+            outputs.put(formatter, createPrinter(fileName(baseName, formatter)));
+        }
+        print(classes, outputs);
+    }
+
     private static IClassFormatter toFormatter(OutputType toGenerate, IFilter<ClassMember> memberFilter) {
         switch (toGenerate) {
             case MEMBER_PSCOUT:
@@ -185,8 +681,12 @@ public class Analyzer {
     }
 
     private static String fileName(IClassHolder classes, IClassFormatter formatter) {
+        return fileName(classes.name(), formatter);
+    }
+
+    private static String fileName(String baseName, IClassFormatter formatter) {
         StringBuilder sb = new StringBuilder();
-        sb.append(classes.name());
+        sb.append(baseName);
         String suffix = formatter.recommendedFilenameSuffix();
         if (suffix != null && !suffix.isEmpty()) {
             sb.append('_').append(suffix);
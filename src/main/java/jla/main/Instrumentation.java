@@ -0,0 +1,404 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the time spent on each class in each phase of the analysis (see
+ * {@link Phase}) while it is set via
+ * {@link Analyzer#setInstrumentation(Instrumentation)}. For each phase it
+ * keeps a latency histogram (with power of 2 buckets), the total bytes
+ * allocated by the recording threads, and the slowest classes. The results
+ * are available as a JSON run report via {@link #toJson()}.
+ *
+ * When the JVM supports JDK Flight Recorder, every sample is also emitted as
+ * a {@code jla.Phase} event which is only recorded while a recording that
+ * enables it is running (ex: {@code -XX:StartFlightRecording}).
+ *
+ * All methods are thread-safe.
+ *
+ * @author Timothy Hoffman
+ */
+public final class Instrumentation {
+
+    /**
+     * The phases of the analysis of a class.
+     */
+    public enum Phase {
+        /**
+         * Finding the next class name in the {@link jla.analyzer.IClassHolder}
+         * (including the class name filter).
+         */
+        ENUMERATE,
+        /**
+         * Loading the class via the {@link jla.resolve.IClassResolver}.
+         */
+        RESOLVE,
+        /**
+         * Formatting the class (including the member filter which is applied
+         * by the {@link jla.format.IClassFormatter} while formatting).
+         */
+        FORMAT,
+        /**
+         * Passing the formatted class to the {@link jla.print.IPrinter}.
+         */
+        PRINT;
+    }
+
+    /**
+     * Default number of slowest classes kept per phase.
+     */
+    public static final int DEFAULT_SLOWEST = 20;
+
+    private static final int BUCKETS = 64;
+
+    private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final boolean ALLOCATION_AVAILABLE = isAllocationAvailable();
+
+    private final int slowest;
+    private final long startNanos = System.nanoTime();
+    private final long startMillis = System.currentTimeMillis();
+    private final PhaseStats[] phases = new PhaseStats[Phase.values().length];
+    private final LongAdder failed = new LongAdder();
+
+    //allocated bytes of the current thread at the start of each phase
+    private final ThreadLocal<long[]> allocationMarks = ThreadLocal.withInitial(() -> new long[Phase.values().length]);
+
+    public Instrumentation() {
+        this(DEFAULT_SLOWEST);
+    }
+
+    /**
+     * @param slowest number of slowest classes kept per phase
+     */
+    public Instrumentation(int slowest) {
+        if (slowest < 0) {
+            throw new IllegalArgumentException("Invalid number of classes: " + slowest);
+        }
+        this.slowest = slowest;
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new PhaseStats();
+        }
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    private static boolean isAllocationAvailable() {
+        try {
+            return THREADS instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported()
+                    && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemoryEnabled();
+        } catch (LinkageError | UnsupportedOperationException ex) {
+            return false;
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATION_AVAILABLE
+                ? ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId())
+                : 0;
+    }
+
+    /**
+     * Marks the start of a phase on the current thread.
+     *
+     * @param phase
+     *
+     * @return the start time to pass to {@link #end}
+     */
+    public long begin(Phase phase) {
+        allocationMarks.get()[phase.ordinal()] = allocatedBytes();
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a phase that was started on the current thread via
+     * {@link #begin(Phase)}.
+     *
+     * @param phase
+     * @param className
+     * @param start     the value returned by {@link #begin(Phase)}
+     */
+    public void end(Phase phase, String className, long start) {
+        long nanos = System.nanoTime() - start;
+        long bytes = allocatedBytes() - allocationMarks.get()[phase.ordinal()];
+        phases[phase.ordinal()].record(className, nanos, bytes, slowest);
+        if (JFR_AVAILABLE) {
+            PhaseEvent.emit(phase.name(), className, nanos, bytes);
+        }
+    }
+
+    /**
+     * Records that the given class could not be resolved.
+     *
+     * @param className
+     */
+    public void failed(String className) {
+        failed.increment();
+    }
+
+    /**
+     * @param phase
+     *
+     * @return number of classes recorded for the given phase so far
+     */
+    public long count(Phase phase) {
+        return phases[phase.ordinal()].count.sum();
+    }
+
+    /**
+     * @return number of classes that could not be resolved so far
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * Wraps an {@link Iterator} of class names so that finding each name is
+     * recorded as {@link Phase#ENUMERATE}.
+     *
+     * @param names
+     *
+     * @return
+     */
+    public Iterator<String> enumerate(Iterator<String> names) {
+        return new Iterator<String>() {
+            private long start = -1;
+
+            @Override
+            public boolean hasNext() {
+                if (start < 0) {
+                    start = begin(Phase.ENUMERATE);
+                }
+                return names.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (start < 0) {
+                    start = begin(Phase.ENUMERATE);
+                }
+                String className = names.next();
+                end(Phase.ENUMERATE, className, start);
+                start = -1;
+                return className;
+            }
+        };
+    }
+
+    /**
+     * Writes the run report (see {@link #toJson()}) to the given file.
+     *
+     * @param fileName
+     */
+    public void writeReport(String fileName) {
+        try {
+            Files.write(Paths.get(fileName), toJson().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            System.err.println("[Instrumentation] unable to write " + fileName + ": " + ex);
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * The run report contains the wall time since this was created, the
+     * number of classes and classes per second (based on the
+     * {@link Phase#RESOLVE} phase), and for each phase the number of
+     * classes, total and mean time, approximate percentiles (upper bound of
+     * the histogram bucket), the maximum, the bytes allocated, the non-empty
+     * histogram buckets, and the slowest classes. Times are in microseconds
+     * unless the name says otherwise. When several formatters are used in a
+     * single pass, each class is formatted and printed once per formatter.
+     *
+     * @return the run report as JSON
+     */
+    public String toJson() {
+        long wallNanos = System.nanoTime() - startNanos;
+        long resolved = count(Phase.RESOLVE);
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("{\n");
+        sb.append("  \"startMillis\": ").append(startMillis).append(",\n");
+        sb.append("  \"wallMillis\": ").append(wallNanos / 1_000_000).append(",\n");
+        sb.append("  \"jfr\": ").append(JFR_AVAILABLE).append(",\n");
+        sb.append("  \"classes\": {\"enumerated\": ").append(count(Phase.ENUMERATE))
+                .append(", \"resolved\": ").append(resolved)
+                .append(", \"failed\": ").append(failed())
+                .append(", \"formatted\": ").append(count(Phase.FORMAT))
+                .append(", \"printed\": ").append(count(Phase.PRINT)).append("},\n");
+        sb.append("  \"classesPerSecond\": ").append(decimal(wallNanos == 0 ? 0 : resolved * 1e9 / wallNanos)).append(",\n");
+        sb.append("  \"phases\": {");
+        for (Phase phase : Phase.values()) {
+            sb.append(phase.ordinal() == 0 ? "\n" : ",\n");
+            sb.append("    \"").append(phase.name().toLowerCase(Locale.ROOT)).append("\": ");
+            phases[phase.ordinal()].appendJson(sb);
+        }
+        sb.append("\n  }\n}\n");
+        return sb.toString();
+    }
+
+    private static String decimal(double d) {
+        return String.format(Locale.ROOT, "%.1f", d);
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * A class and the time spent on it in a phase.
+     */
+    private static final class Sample {
+
+        final String className;
+        final long nanos;
+
+        Sample(String className, long nanos) {
+            this.className = className;
+            this.nanos = nanos;
+        }
+    }
+
+    private static final class PhaseStats {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        //bucket i counts the samples below 2^i nanoseconds
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        //min-heap of the slowest samples and its smallest time once full
+        final PriorityQueue<Sample> slowest = new PriorityQueue<>(Comparator.comparingLong((Sample s) -> s.nanos));
+        volatile long slowestThreshold = -1;
+
+        void record(String className, long nanos, long bytes, int keep) {
+            count.increment();
+            totalNanos.add(nanos);
+            allocatedBytes.add(bytes);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos)));
+            if (keep > 0 && nanos > slowestThreshold) {
+                synchronized (slowest) {
+                    slowest.add(new Sample(className, nanos));
+                    if (slowest.size() > keep) {
+                        slowest.poll();
+                    }
+                    if (slowest.size() == keep) {
+                        slowestThreshold = slowest.peek().nanos;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return upper bound (in nanoseconds) of the bucket containing the
+         *         given fraction of the samples
+         */
+        long percentile(double fraction, long n) {
+            long target = (long) Math.ceil(fraction * n);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= target && seen > 0) {
+                    return Math.min(1L << i, maxNanos.get());
+                }
+            }
+            return maxNanos.get();
+        }
+
+        void appendJson(StringBuilder sb) {
+            long n = count.sum();
+            long total = totalNanos.sum();
+            sb.append("{\"count\": ").append(n)
+                    .append(", \"totalMillis\": ").append(total / 1_000_000)
+                    .append(", \"meanMicros\": ").append(decimal(n == 0 ? 0 : total / 1e3 / n))
+                    .append(", \"p50Micros\": ").append(decimal(percentile(0.5, n) / 1e3))
+                    .append(", \"p90Micros\": ").append(decimal(percentile(0.9, n) / 1e3))
+                    .append(", \"p99Micros\": ").append(decimal(percentile(0.99, n) / 1e3))
+                    .append(", \"maxMicros\": ").append(decimal(maxNanos.get() / 1e3))
+                    .append(", \"allocatedBytes\": ").append(allocatedBytes.sum())
+                    .append(",\n      \"histogram\": [");
+            boolean first = true;
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = histogram.get(i);
+                if (c > 0) {
+                    sb.append(first ? "" : ", ").append("{\"ltMicros\": ").append(decimal((1L << i) / 1e3))
+                            .append(", \"count\": ").append(c).append('}');
+                    first = false;
+                }
+            }
+            sb.append("],\n      \"slowest\": [");
+            List<Sample> samples;
+            synchronized (slowest) {
+                samples = new ArrayList<>(slowest);
+            }
+            Collections.sort(samples, Comparator.comparingLong((Sample s) -> s.nanos).reversed());
+            for (int i = 0; i < samples.size(); i++) {
+                Sample s = samples.get(i);
+                sb.append(i == 0 ? "" : ", ").append("{\"class\": ");
+                appendString(sb, String.valueOf(s.className));
+                sb.append(", \"micros\": ").append(decimal(s.nanos / 1e3)).append('}');
+            }
+            sb.append("]}");
+        }
+    }
+}
@@ -26,19 +26,72 @@ package jla.main;
  * #L%
  */
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.util.EnumSet;
+import java.util.zip.Deflater;
 import jla.analyzer.ClassHolderFactory;
+import jla.analyzer.ClassNameIndex;
 import jla.analyzer.IClassHolder;
 import jla.filter.BasicFilters;
 import jla.filter.ClassMemberFilters;
+import jla.filter.IFilter;
+import jla.filter.MemberFilterExpression;
+import jla.filter.PrefixTrieFilter;
 import jla.format.IClassFormatter;
 import jla.format.impl.PscoutFormatter;
+import jla.print.AsyncFilePrinter;
+import jla.print.ChannelFilePrinter;
 import jla.print.FilePrinter;
 import jla.print.IPrinter;
+import jla.print.ParallelGzipPrinter;
+import jla.print.ShardedPrinter;
+import jla.resolve.ClassFileResolver;
+import jla.resolve.IClassResolver;
+import jla.resolve.SootSceneResolver;
+import soot.ClassMember;
 
 /**
  * Generate PSCOUT format for all visible members in the classes given as
  * program arguments (-c option) or the named file (-f option). Or generate CSV
  * detail format for all visible classes on the boot classpath (-boot option).
+ * Or, with the -server option followed by a port number, keep the JVM running
+ * as a {@link Server} that answers analysis requests from the local machine.
+ *
+ * The -c, -f, or -boot option may be preceded by these options:
+ * <ul>
+ * <li>-threads N - run the analysis as a {@link Pipeline} with N format
+ * threads</li>
+ * <li>-queue N - capacity of the queues between the pipeline stages</li>
+ * <li>-backend soot|signatures|classfile - load classes into the Soot Scene
+ * (default), load them only to the signatures level, or read members
+ * directly from the class files</li>
+ * <li>-scene N - rebuild the Soot Scene whenever it holds N classes</li>
+ * <li>-index DIR - cache the class names found in each jar in DIR</li>
+ * <li>-cache DIR - cache the formatted output of each class in DIR</li>
+ * <li>-printer file|async|channel|gzip - write output files on the analysis
+ * thread (default), on a background thread, via a FileChannel as UTF-8, or
+ * compressed as gzip in parallel (adding .gz to the file name)</li>
+ * <li>-buffer N - buffer size of the async (chars), channel, and gzip
+ * (bytes) printers</li>
+ * <li>-shard package|jar - write one file per package or per jar into a
+ * directory named after the output file (cannot be combined with
+ * -printer)</li>
+ * <li>-open N - maximum number of shard files open at the same time</li>
+ * <li>-members EXPR - print the members accepted by a
+ * {@link MemberFilterExpression} instead of all visible members</li>
+ * <li>-names FILE - restrict the classes found by -boot to those accepted by
+ * the {@link PrefixTrieFilter} rules in FILE</li>
+ * <li>-output LIST - generate each of the comma separated output types
+ * (pscout, csv, detail, class, or all) in a single pass over the
+ * classes</li>
+ * <li>-report FILE - record the time spent in each phase of the analysis of
+ * each class (see {@link Instrumentation}) and write the JSON run report to
+ * FILE</li>
+ * </ul>
+ * Progress of a running analysis is available via JMX (ex: jconsole) from the
+ * {@link AnalysisMetricsMXBean} named {@value Analyzer#METRICS_NAME}.
  *
  * @author Timothy Hoffman
  */
@@ -59,51 +112,348 @@ public class Main {
     //  3. Optional IPrinter implementation to dynamically load
 
     public static void main(String[] args) {
-        if (args.length < 1) {
-            System.err.println("Must give -c and a list of class names, -f and a file listing class names, or -boot");
+        //leading options that configure the analysis
+        int first = 0;
+        int threads = 0;
+        int queue = Pipeline.DEFAULT_QUEUE_CAPACITY;
+        IClassResolver resolver = SootSceneResolver.INST;
+        String printerType = "file";
+        int bufferSize = 0;
+        ShardedPrinter.Key shardKey = null;
+        int maxOpen = ShardedPrinter.DEFAULT_MAX_OPEN;
+        int sceneLimit = 0;
+        EnumSet<Analyzer.OutputType> outputs = null;
+        String report = null;
+        IFilter<ClassMember> members = ClassMemberFilters.VISIBLE;
+        IFilter<String> names = BasicFilters.all();
+        ClassNameIndex index = null;
+        OutputCache cache = null;
+        for (; first < args.length && isConfigOption(args[first]); first += 2) {
+            if (first + 1 >= args.length) {
+                System.err.println(args[first] + " option must be followed by a value");
+                return;
+            }
+            String value = args[first + 1];
+            switch (args[first]) {
+                case "-threads":
+                    threads = parsePositive(args[first], value);
+                    if (threads < 1) {
+                        return;
+                    }
+                    break;
+                case "-queue":
+                    queue = parsePositive(args[first], value);
+                    if (queue < 1) {
+                        return;
+                    }
+                    break;
+                case "-printer":
+                    switch (value) {
+                        case "file":
+                        case "async":
+                        case "channel":
+                        case "gzip":
+                            printerType = value;
+                            break;
+                        default:
+                            System.err.println("-printer option must be followed by file, async, channel, or gzip");
+                            return;
+                    }
+                    break;
+                case "-buffer":
+                    bufferSize = parsePositive(args[first], value);
+                    if (bufferSize < 1) {
+                        return;
+                    }
+                    break;
+                case "-shard":
+                    switch (value) {
+                        case "package":
+                            shardKey = ShardedPrinter.PACKAGE;
+                            break;
+                        case "jar":
+                            shardKey = ShardedPrinter.bySource(Analyzer::findSource);
+                            break;
+                        default:
+                            System.err.println("-shard option must be followed by package or jar");
+                            return;
+                    }
+                    break;
+                case "-open":
+                    maxOpen = parsePositive(args[first], value);
+                    if (maxOpen < 1) {
+                        return;
+                    }
+                    break;
+                case "-scene":
+                    sceneLimit = parsePositive(args[first], value);
+                    if (sceneLimit < 1) {
+                        return;
+                    }
+                    break;
+                case "-report":
+                    report = value;
+                    break;
+                case "-output":
+                    outputs = parseOutputTypes(value);
+                    if (outputs == null) {
+                        System.err.println("-output option must be followed by a comma separated list of pscout, csv, detail, class, or all");
+                        return;
+                    }
+                    break;
+                case "-members":
+                    try {
+                        members = MemberFilterExpression.compile(value);
+                    } catch (IllegalArgumentException ex) {
+                        System.err.println(ex.getMessage());
+                        return;
+                    }
+                    break;
+                case "-names":
+                    try {
+                        names = PrefixTrieFilter.fromFile(value);
+                    } catch (UncheckedIOException | IllegalArgumentException ex) {
+                        System.err.println(ex.getMessage());
+                        return;
+                    }
+                    break;
+                case "-index":
+                    index = new ClassNameIndex(value, ClassNameIndex.DEFAULT_MAX_BYTES);
+                    break;
+                case "-cache":
+                    cache = new OutputCache(value, OutputCache.DEFAULT_MAX_BYTES);
+                    break;
+                case "-backend":
+                    switch (value) {
+                        case "soot":
+                            resolver = SootSceneResolver.INST;
+                            break;
+                        case "signatures":
+                            resolver = SootSceneResolver.SIGNATURES;
+                            break;
+                        case "classfile":
+                            resolver = ClassFileResolver.INST;
+                            break;
+                        default:
+                            System.err.println("-backend option must be followed by soot, signatures, or classfile");
+                            return;
+                    }
+                    break;
+            }
+        }
+        Analyzer.setPipeline(threads > 0 ? new Pipeline(threads, queue) : null);
+        Analyzer.setResolver(resolver);
+        SootSceneResolver.setMaxClasses(sceneLimit);
+        Analyzer.setCache(cache);
+        ClassHolderFactory.setIndex(index);
+        if (shardKey != null) {
+            if (!"file".equals(printerType)) {
+                //sharded output is always written as plain files
+                System.err.println("-shard option cannot be combined with -printer " + printerType);
+                return;
+            }
+            printerType = "shard";
+        }
+        switch (printerType) {
+            case "shard": {
+                final ShardedPrinter.Key key = shardKey;
+                final int open = maxOpen;
+                final int writers = Math.min(open, ShardedPrinter.DEFAULT_WRITERS);
+                Analyzer.setPrinterFactory(fileName -> new ShardedPrinter(fileName, key, open, writers));
+                break;
+            }
+            case "async": {
+                final int size = bufferSize > 0 ? bufferSize : AsyncFilePrinter.DEFAULT_BUFFER_SIZE;
+                Analyzer.setPrinterFactory(fileName -> new AsyncFilePrinter(fileName, size));
+                break;
+            }
+            case "channel": {
+                final int size = bufferSize > 0 ? bufferSize : ChannelFilePrinter.DEFAULT_BUFFER_SIZE;
+                Analyzer.setPrinterFactory(fileName -> new ChannelFilePrinter(fileName, size));
+                break;
+            }
+            case "gzip": {
+                final int size = bufferSize > 0 ? bufferSize : ParallelGzipPrinter.DEFAULT_BLOCK_SIZE;
+                Analyzer.setPrinterFactory(fileName -> new ParallelGzipPrinter(fileName + ".gz", size,
+                        Runtime.getRuntime().availableProcessors(), Deflater.DEFAULT_COMPRESSION));
+                break;
+            }
+            default:
+                Analyzer.setPrinterFactory(FilePrinter::new);
+                break;
+        }
+
+        Instrumentation instrumentation = (report == null) ? null : new Instrumentation();
+        Analyzer.setInstrumentation(instrumentation);
+        try {
+            analyze(args, first, outputs, names, members);
+        } finally {
+            Analyzer.setInstrumentation(null);
+            if (instrumentation != null) {
+                instrumentation.writeReport(report);
+            }
+        }
+    }
+
+    private static void analyze(String[] args, int first, EnumSet<Analyzer.OutputType> outputs,
+            IFilter<String> names, IFilter<ClassMember> members) {
+        if (args.length <= first) {
+            System.err.println("Must give -c and a list of class names, -f and a file listing class names, -boot, or -server and a port");
             return;
         }
 
         IClassHolder classHolder;
-        switch (args[0]) {
+        switch (args[first]) {
             case "-c":
-                if (args.length < 2) {
+                if (args.length < first + 2) {
                     System.err.println("-c option must be followed by one or more java class names");
                     return;
                 }
-                int numClasses = args.length - 1;
+                int numClasses = args.length - first - 1;
                 String[] classList = new String[numClasses];
-                System.arraycopy(args, 1, classList, 0, numClasses);
+                System.arraycopy(args, first + 1, classList, 0, numClasses);
                 classHolder = ClassHolderFactory.classNames(classList);
                 break;
             case "-f":
-                if (args.length < 2) {
+                if (args.length < first + 2) {
                     System.err.println("-f option must be followed by a filename containing class names (one per line)");
                     return;
                 }
-                classHolder = ClassHolderFactory.readClassNamesFromFile(args[1]);
+                classHolder = ClassHolderFactory.readClassNamesFromFile(args[first + 1]);
                 break;
             case "-boot":
-                gen_CSVDetail_FromBoot_AllVisible();
+                if (outputs != null) {
+                    Analyzer.print(ClassHolderFactory.classesFromBootPath(names, visibleOnly(members)), outputs, members);
+                    return;
+                }
+                gen_CSVDetail_FromBoot(names, members);
+                return;
+            case "-server":
+                if (args.length < first + 2) {
+                    System.err.println("-server option must be followed by a port number");
+                    return;
+                }
+                int port;
+                try {
+                    port = Integer.parseInt(args[first + 1]);
+                } catch (NumberFormatException ex) {
+                    port = -1;
+                }
+                if (port < 0 || port > 65535) {
+                    System.err.println("-server option must be followed by a port number");
+                    return;
+                }
+                runServer(port);
                 return;
             default:
-                System.err.println("Unsupported option: " + args[0]);
+                System.err.println("Unsupported option: " + args[first]);
                 return;
         }
 
-        IClassFormatter formatter = new PscoutFormatter(ClassMemberFilters.VISIBLE);
-        IPrinter printer = new FilePrinter("classes_" + System.currentTimeMillis() + formatter.recommendedFileExtension());
+        if (outputs != null) {
+            Analyzer.print(classHolder, outputs, members, "classes_" + System.currentTimeMillis());
+            return;
+        }
+        IClassFormatter formatter = new PscoutFormatter(members);
+        IPrinter printer = Analyzer.createPrinter("classes_" + System.currentTimeMillis() + formatter.recommendedFileExtension());
         Analyzer.print(classHolder, formatter, printer);
     }
 
+    /**
+     * @param value comma separated list of output types
+     *
+     * @return the output types or {@code null} if any is invalid
+     */
+    private static EnumSet<Analyzer.OutputType> parseOutputTypes(String value) {
+        EnumSet<Analyzer.OutputType> ret = EnumSet.noneOf(Analyzer.OutputType.class);
+        for (String type : value.split(",")) {
+            switch (type.trim()) {
+                case "pscout":
+                    ret.add(Analyzer.OutputType.MEMBER_PSCOUT);
+                    break;
+                case "csv":
+                    ret.add(Analyzer.OutputType.MEMBER_CSV);
+                    break;
+                case "detail":
+                    ret.add(Analyzer.OutputType.MEMBER_CSV_DETAIL);
+                    break;
+                case "class":
+                    ret.add(Analyzer.OutputType.CLASS_ONLY);
+                    break;
+                case "all":
+                    ret.addAll(EnumSet.allOf(Analyzer.OutputType.class));
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return ret;
+    }
+
+    private static boolean isConfigOption(String arg) {
+        switch (arg) {
+            case "-threads":
+            case "-queue":
+            case "-backend":
+            case "-printer":
+            case "-buffer":
+            case "-shard":
+            case "-open":
+            case "-scene":
+            case "-output":
+            case "-report":
+            case "-members":
+            case "-names":
+            case "-index":
+            case "-cache":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int parsePositive(String option, String value) {
+        int ret;
+        try {
+            ret = Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            ret = -1;
+        }
+        if (ret < 1) {
+            System.err.println(option + " option must be followed by a positive integer");
+        }
+        return ret;
+    }
+
+    /**
+     * @param members
+     *
+     * @return {@code true} if the classes that are not visible can be skipped
+     *         since they have no members that the given filter accepts
+     */
+    static boolean visibleOnly(IFilter<ClassMember> members) {
+        //NOTE: the name identifies a compiled MemberFilterExpression as well
+        return ClassMemberFilters.VISIBLE.name().equals(members.name());
+    }
+
+    private static void runServer(int port) {
+        try (Server server = new Server(port)) {
+            server.warmUp();
+            System.err.println("[Server] listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ':' + server.port());
+            server.run();
+        } catch (IOException ex) {
+            System.err.println("[Server] " + ex);
+        }
+    }
+
     /**
      *
      */
-    private static void gen_CSVDetail_FromBoot_AllVisible() {
+    private static void gen_CSVDetail_FromBoot(IFilter<String> names, IFilter<ClassMember> members) {
         Analyzer.print(
-                ClassHolderFactory.classesFromBootPath(BasicFilters.all()),
+                ClassHolderFactory.classesFromBootPath(names, visibleOnly(members)),
                 Analyzer.OutputType.MEMBER_CSV_DETAIL,
-                ClassMemberFilters.VISIBLE
+                members
         );
     }
 }
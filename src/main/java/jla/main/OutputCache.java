@@ -0,0 +1,304 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import jla.format.IClassFormatter;
+import jla.resolve.ClassLocator;
+import jla.util.Hex;
+
+/**
+ * Content-addressed on-disk cache of the formatted output of each class. The
+ * key of each entry is a hash of the class file bytes, the class name, the
+ * identity of the {@link IClassFormatter} (its class, recommended filename
+ * suffix, which includes the member filter name, and recommended file
+ * extension), and the version of this tool. Classes with a cached entry are
+ * printed straight from the cache without being resolved.
+ *
+ * When the cache directory grows beyond its size limit, the least recently
+ * used entries are deleted until it is back to three quarters of the limit
+ * (so the directory is not listed again after every new entry).
+ *
+ * @author Timothy Hoffman
+ */
+public final class OutputCache {
+
+    /**
+     * Must be incremented whenever the output of any built-in formatter
+     * changes so that stale entries are never used.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String TOOL_VERSION;
+
+    static {
+        String v = Analyzer.class.getPackage().getImplementationVersion();
+        TOOL_VERSION = (v == null ? "unknown" : v) + '/' + FORMAT_VERSION;
+    }
+
+    /**
+     * Default maximum size of the cache directory.
+     */
+    public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+
+    private static final byte NO_OUTPUT = 0;
+    private static final byte HAS_OUTPUT = 1;
+
+    private final Path dir;
+    private final long maxBytes;
+    private volatile ClassLocator locator;
+
+    /**
+     * Total size of the entries or -1 until the directory is first listed.
+     */
+    private long used;
+
+    /**
+     * @param dir      directory containing the cache entries (created if
+     *                 needed)
+     * @param maxBytes maximum total size of all entries
+     */
+    public OutputCache(String dir, long maxBytes) {
+        if (dir == null || maxBytes < 1) {
+            throw new IllegalArgumentException("Invalid cache parameters!");
+        }
+        this.dir = Paths.get(dir);
+        this.maxBytes = maxBytes;
+        this.locator = new ClassLocator(null);
+        this.used = -1;
+    }
+
+    /**
+     * @param paths the classpath where class files are found or {@code null}
+     *              for the classes available to the system class loader
+     */
+    void setClasspath(List<String> paths) {
+        ClassLocator old = locator;
+        locator = new ClassLocator(paths);
+        old.close();
+    }
+
+    /**
+     * A cache entry for one class formatted by one {@link IClassFormatter}.
+     */
+    final class Entry {
+
+        private final Path file;
+        private final boolean hit;
+        private final String value;
+
+        private Entry(Path file, boolean hit, String value) {
+            this.file = file;
+            this.hit = hit;
+            this.value = value;
+        }
+
+        /**
+         * @return {@code true} iff the output was found in the cache
+         */
+        boolean isHit() {
+            return hit;
+        }
+
+        /**
+         * @return the cached output (may be {@code null} if the formatter
+         *         produced no output for the class)
+         */
+        String value() {
+            return value;
+        }
+
+        /**
+         * Stores the output of the formatter for this entry.
+         *
+         * @param output
+         */
+        void store(String output) {
+            try {
+                Files.createDirectories(file.getParent());
+                Path tmp = Files.createTempFile(file.getParent(), "tmp", ".part");
+                try {
+                    byte[] bytes = output == null ? new byte[0] : output.getBytes(StandardCharsets.UTF_8);
+                    byte[] content = new byte[bytes.length + 1];
+                    content[0] = output == null ? NO_OUTPUT : HAS_OUTPUT;
+                    System.arraycopy(bytes, 0, content, 1, bytes.length);
+                    Files.write(tmp, content);
+                    //NOTE: rename so concurrent runs never see a partial entry
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+                added(file);
+            } catch (IOException ex) {
+                System.err.println("[OutputCache] unable to write " + file + ": " + ex);
+            }
+        }
+    }
+
+    /**
+     * @param className
+     * @param formatter
+     *
+     * @return the cache {@link Entry} for the given class and formatter or
+     *         {@code null} if the class file cannot be found (in which case
+     *         the output cannot be cached)
+     */
+    Entry lookup(String className, IClassFormatter formatter) {
+        byte[] classBytes;
+        try {
+            classBytes = locator.read(className);
+        } catch (IOException ex) {
+            classBytes = null;
+        }
+        if (classBytes == null) {
+            return null;
+        }
+
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        md.update(identity(className, formatter).getBytes(StandardCharsets.UTF_8));
+        md.update(classBytes);
+        String hex = Hex.encode(md.digest());
+        Path file = dir.resolve(hex.substring(0, 2)).resolve(hex.substring(2));
+
+        if (Files.isRegularFile(file)) {
+            try {
+                byte[] content = Files.readAllBytes(file);
+                if (content.length > 0 && content[0] == NO_OUTPUT) {
+                    touch(file);
+                    return new Entry(file, true, null);
+                } else if (content.length > 0 && content[0] == HAS_OUTPUT) {
+                    touch(file);
+                    return new Entry(file, true, new String(content, 1, content.length - 1, StandardCharsets.UTF_8));
+                }
+            } catch (IOException ex) {
+                System.err.println("[OutputCache] ignoring unreadable entry " + file + ": " + ex);
+            }
+        }
+        return new Entry(file, false, null);
+    }
+
+    /**
+     * Accounts for a new entry and evicts entries if the size limit is
+     * exceeded.
+     *
+     * @param file the new entry
+     */
+    private synchronized void added(Path file) throws IOException {
+        if (used < 0) {
+            //includes the new entry
+            used = 0;
+            for (Path p : entries()) {
+                used += Files.size(p);
+            }
+        } else {
+            used += Files.size(file);
+        }
+        if (used > maxBytes) {
+            evict(maxBytes / 4 * 3);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until their total size is
+     * within the given limit.
+     */
+    private void evict(long limit) throws IOException {
+        List<Path> files = entries();
+        long total = 0;
+        long[] lastUsed = new long[files.size()];
+        Integer[] order = new Integer[files.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            lastUsed[i] = Files.getLastModifiedTime(files.get(i)).toMillis();
+            total += Files.size(files.get(i));
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lastUsed[i]));
+        for (int i = 0; i < order.length && total > limit; i++) {
+            Path p = files.get(order[i]);
+            long len = Files.size(p);
+            if (Files.deleteIfExists(p)) {
+                total -= len;
+            }
+        }
+        used = total;
+    }
+
+    /**
+     * @return all entries in the cache directory (excluding any partially
+     *         written entries)
+     */
+    private List<Path> entries() throws IOException {
+        ArrayList<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> subdirs = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path subdir : subdirs) {
+                try (DirectoryStream<Path> ds = Files.newDirectoryStream(subdir)) {
+                    for (Path p : ds) {
+                        if (!p.getFileName().toString().endsWith(".part")) {
+                            files.add(p);
+                        }
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Records the use of an entry for the LRU eviction.
+     */
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ex) {
+            //only affects the eviction order
+        }
+    }
+
+    private static String identity(String className, IClassFormatter formatter) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(TOOL_VERSION).append('\0');
+        sb.append(formatter.getClass().getName()).append('\0');
+        sb.append(formatter.recommendedFilenameSuffix()).append('\0');
+        sb.append(formatter.recommendedFileExtension()).append('\0');
+        sb.append(className).append('\0');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,387 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import jla.analyzer.IClassHolder;
+import jla.format.IClassFormatter;
+import jla.print.IPrinter;
+import soot.SootClass;
+
+/**
+ * Configuration for running {@link Analyzer} as a multi-stage pipeline
+ * (enumerate &rarr; resolve &rarr; format &rarr; write) with bounded queues
+ * between the stages. The output is identical, and in the same order, as the
+ * sequential analysis.
+ *
+ * NOTE: The Soot {@link soot.Scene} is not thread-safe so there is always
+ * exactly one resolver thread. Only the format stage has a configurable
+ * number of workers and thus the {@link IClassFormatter} used with a
+ * {@link Pipeline} must be safe to call from multiple threads (all formatters
+ * in {@link jla.format.impl} are stateless and therefore safe). When the
+ * {@link jla.resolve.IClassResolver} is full, the resolver thread waits for
+ * all pending classes to be formatted before it is released.
+ *
+ * @author Timothy Hoffman
+ */
+public final class Pipeline {
+
+    /**
+     * Default capacity of the queues between pipeline stages.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    /**
+     * Marks the end of the class name queue.
+     */
+    private static final Object END_OF_NAMES = new Object();
+
+    /**
+     * Marks the end of the formatted output queue.
+     */
+    private static final Output END_OF_OUTPUT = new Output(null, -1, () -> null, null);
+
+    private final int formatThreads;
+    private final int queueCapacity;
+
+    /**
+     * @param formatThreads number of threads used to format resolved classes
+     * @param queueCapacity maximum number of elements waiting between any two
+     *                      stages of the pipeline
+     */
+    public Pipeline(int formatThreads, int queueCapacity) {
+        if (formatThreads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Parameters must be positive!");
+        }
+        this.formatThreads = formatThreads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @return a new {@link Pipeline} with one format thread per available
+     *         processor and the default queue capacity
+     */
+    public static Pipeline forAvailableProcessors() {
+        return new Pipeline(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @return number of threads used to format resolved classes
+     */
+    public int formatThreads() {
+        return formatThreads;
+    }
+
+    /**
+     * @return maximum number of elements waiting between two stages
+     */
+    public int queueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Equivalent to {@link Analyzer#print(IClassHolder, IClassFormatter, IPrinter)}
+     * but each stage runs on its own thread(s). The calling thread performs
+     * the write stage so the {@link IPrinter} is only accessed from the
+     * calling thread.
+     *
+     * @param classes
+     * @param formatter
+     * @param printer
+     */
+    void print(IClassHolder classes, IClassFormatter formatter, IPrinter printer) {
+        print(classes, new IClassFormatter[]{formatter}, new IPrinter[]{printer});
+    }
+
+    /**
+     * Equivalent to {@link Analyzer#print(IClassHolder, java.util.Map)}. Each class is
+     * resolved once and then formatted by all formatters concurrently.
+     *
+     * @param classes
+     * @param formatters
+     * @param printers   the {@link IPrinter} for the formatter at the same
+     *                   index
+     */
+    void print(IClassHolder classes, IClassFormatter[] formatters, IPrinter[] printers) {
+        final BlockingQueue<Object> names = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<Output> output = new ArrayBlockingQueue<>(queueCapacity);
+        final ExecutorService formatPool = Executors.newFixedThreadPool(formatThreads, new StageThreadFactory("format"));
+        final ThreadFactory stages = new StageThreadFactory("stage");
+        final OutputCache cache = Analyzer.cache();
+        final AnalysisMetrics metrics = Analyzer.metrics();
+
+        //Enumerate: iterate the IClassHolder (i.e. read jars, files, etc.)
+        Thread enumerator = stages.newThread(() -> {
+            Object last = END_OF_NAMES;
+            try {
+                Iterator<String> itr = Analyzer.names(classes);
+                while (itr.hasNext()) {
+                    names.put(itr.next());
+                }
+            } catch (InterruptedException ex) {
+                return;
+            } catch (Exception | Error ex) {
+                last = ex;
+            }
+            try {
+                names.put(last);
+            } catch (InterruptedException ex) {
+                //pipeline was cancelled
+            }
+        });
+
+        //Resolve: load classes into the Scene (single thread) and hand them
+        //  off to the format pool while recording the original order.
+        Thread resolver = stages.newThread(() -> {
+            final OutputCache.Entry[] cached = new OutputCache.Entry[formatters.length];
+            final Formatting formatting = new Formatting();
+            try {
+                while (true) {
+                    Object next = names.take();
+                    if (next == END_OF_NAMES) {
+                        output.put(END_OF_OUTPUT);
+                        return;
+                    } else if (next instanceof Throwable) {
+                        output.put(failed((Throwable) next));
+                        return;
+                    }
+                    String className = (String) next;
+                    boolean allHits = true;
+                    for (int i = 0; i < formatters.length; i++) {
+                        cached[i] = (cache == null) ? null : cache.lookup(className, formatters[i]);
+                        allHits &= cached[i] != null && cached[i].isHit();
+                    }
+                    SootClass clazz = allHits ? null : resolve(className, formatting);
+                    if (clazz == null && !allHits) {
+                        continue;
+                    }
+                    for (int i = 0; i < formatters.length; i++) {
+                        final OutputCache.Entry entry = cached[i];
+                        if (entry != null && entry.isHit()) {
+                            Output done = new Output(className, i, entry::value, null);
+                            done.run();
+                            output.put(done);
+                            continue;
+                        }
+                        final IClassFormatter formatter = formatters[i];
+                        Output task = new Output(className, i, () -> {
+                            String format = Analyzer.format(formatter, clazz);
+                            if (entry != null) {
+                                entry.store(format);
+                            }
+                            return format;
+                        }, formatting);
+                        formatting.started();
+                        output.put(task);
+                        formatPool.execute(task);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                //pipeline was cancelled
+            } catch (Exception | Error ex) {
+                try {
+                    //NOTE: the writer is still draining the queue so this
+                    //  cannot block forever
+                    output.put(failed(ex));
+                } catch (InterruptedException ie) {
+                    //pipeline was cancelled
+                }
+            }
+        });
+
+        int opened = 0;
+        try {
+            for (; opened < printers.length; opened++) {
+                printers[opened].open();
+                String header = formatters[opened].header();
+                if (header != null && !header.isEmpty()) {
+                    printers[opened].print(header);
+                }
+            }
+            metrics.addQueues(names, output);
+            enumerator.start();
+            resolver.start();
+            //Write: print formatted classes in the order they were resolved
+            for (Output next = take(output); next != END_OF_OUTPUT; next = take(output)) {
+                String format = get(next);
+                if (format != null) {
+                    Analyzer.print(printers[next.target], next.className, format);
+                }
+            }
+        } finally {
+            metrics.removeQueues(names, output);
+            enumerator.interrupt();
+            resolver.interrupt();
+            formatPool.shutdownNow();
+            Analyzer.closeAll(printers, Math.min(opened + 1, printers.length));
+        }
+    }
+
+    /**
+     * Same as {@link Analyzer#resolve(String)} except that a full resolver is
+     * released once no class is being formatted anymore.
+     *
+     * @param className
+     * @param formatting
+     *
+     * @return the resolved class or {@code null} if it cannot be resolved
+     *
+     * @throws InterruptedException
+     */
+    private static SootClass resolve(String className, Formatting formatting) throws InterruptedException {
+        if (Analyzer.resolver().isFull()) {
+            formatting.awaitNone();
+            return Analyzer.resolveAfterRelease(className);
+        }
+        return Analyzer.resolve(className);
+    }
+
+    private static Output failed(Throwable t) {
+        Output f = new Output(null, -1, () -> {
+            if (t instanceof Error) {
+                throw (Error) t;
+            } else {
+                throw (Exception) t;
+            }
+        }, null);
+        f.run();
+        return f;
+    }
+
+    private static <T> T take(BlockingQueue<T> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static String get(Future<String> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    /**
+     * Creates named daemon threads so an abandoned pipeline cannot prevent
+     * the JVM from exiting.
+     */
+    private static final class StageThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        StageThreadFactory(String prefix) {
+            this.prefix = "jla-" + prefix + '-';
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefix + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    /**
+     * Counts the classes that are being formatted.
+     */
+    private static final class Formatting {
+
+        private int pending = 0;
+
+        synchronized void started() {
+            pending++;
+        }
+
+        synchronized void finished() {
+            if (--pending == 0) {
+                notifyAll();
+            }
+        }
+
+        synchronized void awaitNone() throws InterruptedException {
+            while (pending > 0) {
+                wait();
+            }
+        }
+    }
+
+    /**
+     * The pending formatted output of a single class for one of the
+     * formatters.
+     */
+    private static final class Output extends FutureTask<String> {
+
+        private final String className;
+        private final int target;
+        private final Formatting formatting;
+
+        /**
+         * @param className
+         * @param target     index of the formatter and printer
+         * @param format
+         * @param formatting notified when the task completes or {@code null}
+         */
+        Output(String className, int target, Callable<String> format, Formatting formatting) {
+            super(format);
+            this.className = className;
+            this.target = target;
+            this.formatting = formatting;
+        }
+
+        @Override
+        protected void done() {
+            if (formatting != null) {
+                formatting.finished();
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import jla.analyzer.ClassHolderFactory;
+import jla.analyzer.IClassHolder;
+import jla.filter.BasicFilters;
+import jla.filter.IFilter;
+import jla.filter.MemberFilterExpression;
+import jla.print.StreamPrinter;
+import soot.ClassMember;
+
+/**
+ * Long-running analysis server that keeps the classes already resolved by the
+ * {@link jla.resolve.IClassResolver} (i.e. the Soot Scene) warm across
+ * requests. It listens on a TCP port of the loopback interface only.
+ *
+ * Each connection carries one request. The first line has the form
+ * {@code <source> <OutputType> <members>} where the members are given by a
+ * {@link MemberFilterExpression} (ex: {@code VISIBLE}) and the source is
+ * {@code classes} (the following lines are class names, resolved on the
+ * classpath given by any lines of the form {@code classpath <jar or dir>}
+ * among them or else on the default classpath), {@code classpath} (the
+ * following lines are jar files or directories whose classes are analyzed),
+ * or {@code boot} (no further lines).
+ * The list ends with an empty line or the end of the input. The response is a
+ * line containing {@code OK} followed by the formatted output, or a line
+ * starting with {@code ERROR}, and then the connection is closed. A first line
+ * of {@code shutdown} stops the server. For example:
+ * <pre>
+ * printf 'classes MEMBER_PSCOUT VISIBLE\njava.lang.Object\n\n' | nc 127.0.0.1 PORT
+ * </pre>
+ *
+ * NOTE: requests are handled one at a time since the Soot Scene is not
+ * thread-safe. The Scene stays warm across requests with the same classpath
+ * and is rebuilt when a request gives a different classpath (see
+ * {@link jla.resolve.SootSceneResolver#setClasspath(java.util.List)}).
+ *
+ * @author Timothy Hoffman
+ */
+public final class Server implements Closeable {
+
+    /**
+     * Time limit for receiving a request once a client connects.
+     */
+    private static final int READ_TIMEOUT_MILLIS = 30000;
+
+    /**
+     * Prefix of a classpath entry in a {@code classes} request.
+     */
+    private static final String CLASSPATH_LINE = "classpath";
+
+    private final ServerSocket socket;
+
+    /**
+     * @param port the port to listen on or {@code 0} for any free port
+     *
+     * @throws IOException
+     */
+    public Server(int port) throws IOException {
+        this.socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Resolves {@link Object} (and thereby the core classes it depends on) so
+     * that the first request does not pay for it.
+     */
+    public void warmUp() {
+        Analyzer.setClasspath(null);
+        Analyzer.resolve(Object.class.getName());
+    }
+
+    /**
+     * Handles requests until a {@code shutdown} request is received or the
+     * server is closed.
+     *
+     * @throws IOException
+     */
+    public void run() throws IOException {
+        try {
+            while (true) {
+                try (Socket client = socket.accept()) {
+                    if (!handle(client)) {
+                        return;
+                    }
+                } catch (IOException ex) {
+                    //a failed connection only affects that one client
+                    if (socket.isClosed()) {
+                        return;
+                    }
+                    System.err.println("[Server] " + ex);
+                }
+            }
+        } finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * @param client
+     *
+     * @return {@code false} iff the server should stop
+     *
+     * @throws IOException
+     */
+    private boolean handle(Socket client) throws IOException {
+        client.setSoTimeout(READ_TIMEOUT_MILLIS);
+        BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+        OutputStream out = client.getOutputStream();
+        String header = in.readLine();
+        if (header == null) {
+            return true;
+        }
+        String[] parts = header.trim().split("\\s+", 3);
+        if (parts.length == 1 && "shutdown".equals(parts[0])) {
+            respond(out, "OK");
+            return false;
+        }
+        if (parts.length != 3) {
+            respond(out, "ERROR expected: <source> <OutputType> <members>");
+            return true;
+        }
+        Analyzer.OutputType type;
+        IFilter<ClassMember> filter;
+        try {
+            type = Analyzer.OutputType.valueOf(parts[1]);
+            filter = MemberFilterExpression.compile(parts[2]);
+        } catch (IllegalArgumentException ex) {
+            respond(out, "ERROR " + ex.getMessage());
+            return true;
+        }
+        IClassHolder classes;
+        switch (parts[0]) {
+            case "classes":
+                ArrayList<String> names = new ArrayList<>();
+                ArrayList<String> paths = new ArrayList<>();
+                for (String line : readLines(in)) {
+                    //NOTE: class names cannot contain whitespace
+                    String[] cp = line.split("\\s+", 2);
+                    if (cp.length == 2 && CLASSPATH_LINE.equals(cp[0])) {
+                        paths.add(cp[1]);
+                    } else {
+                        names.add(line);
+                    }
+                }
+                Analyzer.setClasspath(paths.isEmpty() ? null : paths);
+                classes = ClassHolderFactory.classNames(names.toArray(new String[names.size()]));
+                break;
+            case "classpath":
+                classes = ClassHolderFactory.classesFromPath(Arrays.asList(readLines(in)), BasicFilters.all(), Main.visibleOnly(filter));
+                break;
+            case "boot":
+                classes = ClassHolderFactory.classesFromBootPath(BasicFilters.all(), Main.visibleOnly(filter));
+                break;
+            default:
+                respond(out, "ERROR unsupported source: " + parts[0]);
+                return true;
+        }
+        respond(out, "OK");
+        try {
+            Analyzer.print(classes, type, filter, new StreamPrinter(out));
+        } catch (RuntimeException ex) {
+            //the client sees the output end early but the server keeps going
+            System.err.println("[Server] request failed: " + header + " -> " + ex);
+        }
+        return true;
+    }
+
+    /**
+     * @return the lines up to the next empty line or the end of the input
+     */
+    private static String[] readLines(BufferedReader in) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        for (String line; (line = in.readLine()) != null && !(line = line.trim()).isEmpty();) {
+            lines.add(line);
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    private static void respond(OutputStream out, String status) throws IOException {
+        out.write((status + '\n').getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
@@ -0,0 +1,264 @@
+package jla.print;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of {@link IPrinter} that prints everything to a file with the
+ * given name (using the same encoding as {@link FilePrinter}) but leaves the
+ * encoding and writing to a background thread so that {@link #print(String)}
+ * only copies into a buffer. Full buffers are handed to the writer thread and
+ * recycled once written. When all buffers are waiting to be written,
+ * {@link #print(String)} blocks until the writer catches up. Closing the
+ * printer writes all remaining content and forces it to the storage device.
+ *
+ * NOTE: The methods of this class must be called from one thread at a time.
+ *
+ * @author Timothy Hoffman
+ */
+public class AsyncFilePrinter implements IPrinter {
+
+    /**
+     * Default size of each buffer (in chars).
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Number of buffers, i.e. one can be filled while one is written.
+     */
+    private static final int BUFFER_COUNT = 2;
+
+    /**
+     * How often a blocked {@link #print(String)} or {@link #close()} checks
+     * that the writer thread is still running.
+     */
+    private static final long WRITER_CHECK_MILLIS = 100;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /**
+     * A filled buffer waiting to be written or {@link #END} to stop the
+     * writer thread.
+     */
+    private static final class Chunk {
+
+        final char[] buf;
+        final int len;
+
+        Chunk(char[] buf, int len) {
+            this.buf = buf;
+            this.len = len;
+        }
+    }
+
+    private static final Chunk END = new Chunk(null, 0);
+
+    private final String fileName;
+    private final int bufferSize;
+    private FileOutputStream file;
+    private Thread writer;
+    private BlockingQueue<Chunk> filled;
+    private BlockingQueue<char[]> free;
+    private char[] current;
+    private int used;
+    private volatile Throwable failure;
+
+    public AsyncFilePrinter(String fileName) {
+        this(fileName, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param fileName
+     * @param bufferSize size of each buffer (in chars)
+     */
+    public AsyncFilePrinter(String fileName, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.fileName = fileName;
+        this.bufferSize = bufferSize;
+        this.file = null;
+    }
+
+    @Override
+    public void open() {
+        if (file == null) {
+            try {
+                file = new FileOutputStream(fileName);
+            } catch (FileNotFoundException ex) {
+                file = null;
+                throw new RuntimeException(ex);
+            }
+            filled = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+            free = new ArrayBlockingQueue<>(BUFFER_COUNT);
+            for (int i = 1; i < BUFFER_COUNT; i++) {
+                free.add(new char[bufferSize]);
+            }
+            current = new char[bufferSize];
+            used = 0;
+            failure = null;
+            writer = new Thread(this::write, "jla-writer-" + THREAD_COUNT.incrementAndGet());
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (file != null) {
+            try {
+                if (used > 0) {
+                    putFilled(new Chunk(current, used));
+                }
+                putFilled(END);
+                writer.join();
+                if (failure == null) {
+                    file.getFD().sync();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                writer.interrupt();
+                throw new RuntimeException(ex);
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            } finally {
+                try {
+                    file.close();
+                } catch (IOException ex) {
+                    if (failure == null) {
+                        failure = ex;
+                    }
+                }
+                file = null;
+                writer = null;
+                current = null;
+            }
+            if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+        }
+    }
+
+    @Override
+    public void print(String s) {
+        if (file == null) {
+            throw new RuntimeException("Stream is not open");
+        }
+        if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+        for (int off = 0, len = s.length(); off < len;) {
+            int n = Math.min(len - off, current.length - used);
+            s.getChars(off, off + n, current, used);
+            used += n;
+            off += n;
+            if (used == current.length) {
+                try {
+                    putFilled(new Chunk(current, used));
+                    current = takeFree();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(ex);
+                }
+                used = 0;
+            }
+        }
+    }
+
+    /**
+     * Hands a chunk to the writer thread unless the writer thread stopped.
+     *
+     * @throws RuntimeException if the writer thread stopped
+     */
+    private void putFilled(Chunk c) throws InterruptedException {
+        while (!filled.offer(c, WRITER_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+            checkWriter();
+        }
+    }
+
+    /**
+     * Waits for the writer thread to recycle a buffer.
+     *
+     * @throws RuntimeException if the writer thread stopped
+     */
+    private char[] takeFree() throws InterruptedException {
+        while (true) {
+            char[] buf = free.poll(WRITER_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            if (buf != null) {
+                return buf;
+            }
+            checkWriter();
+        }
+    }
+
+    /**
+     * @throws RuntimeException if the writer thread stopped
+     */
+    private void checkWriter() {
+        if (failure == null && !writer.isAlive()) {
+            //NOTE: the thread died before it could record why
+            failure = new IllegalStateException("Writer thread stopped");
+        }
+        if (failure != null) {
+            throw new RuntimeException("Writer thread stopped", failure);
+        }
+    }
+
+    /**
+     * Body of the writer thread.
+     */
+    private void write() {
+        //NOTE: the encoder buffers only up to one chunk before writing
+        Writer out = new OutputStreamWriter(new BufferedOutputStream(file, bufferSize), Charset.defaultCharset());
+        try {
+            for (Chunk c; (c = filled.take()) != END;) {
+                if (failure == null) {
+                    try {
+                        out.write(c.buf, 0, c.len);
+                    } catch (Throwable ex) {
+                        //keep taking chunks so the printing thread never blocks
+                        failure = ex;
+                    }
+                }
+                //NOTE: never blocks since the queue can hold all buffers
+                free.put(c.buf);
+            }
+            if (failure == null) {
+                out.flush();
+            }
+        } catch (Throwable ex) {
+            //includes InterruptedException
+            failure = ex;
+        }
+    }
+}
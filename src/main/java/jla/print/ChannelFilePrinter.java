@@ -0,0 +1,158 @@
+package jla.print;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Implementation of {@link IPrinter} that prints everything (encoded as
+ * UTF-8) to a file with the given name. The Strings are encoded into a
+ * reusable byte array which is copied into a reusable direct
+ * {@link ByteBuffer} and written via a {@link FileChannel} whenever it fills
+ * up, so printing does not create any intermediate objects.
+ *
+ * NOTE: As with {@link String#getBytes(java.nio.charset.Charset)}, unpaired
+ * surrogate chars are encoded as {@code '?'}.
+ *
+ * @author Timothy Hoffman
+ */
+public class ChannelFilePrinter implements IPrinter {
+
+    /**
+     * Default size of the buffer (in bytes).
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 18;
+
+    private static final int MAX_BYTES_PER_CHAR = Utf8Encoder.MAX_BYTES_PER_CHAR;
+
+    private final String fileName;
+    private final int bufferSize;
+    private FileChannel channel;
+    private ByteBuffer direct;
+    /**
+     * NOTE: encoding into an array is much faster than putting each byte into
+     * the direct buffer and the bulk copy to the direct buffer is cheap.
+     */
+    private byte[] buf;
+    private int pos;
+    private final Utf8Encoder encoder = new Utf8Encoder();
+
+    public ChannelFilePrinter(String fileName) {
+        this(fileName, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param fileName
+     * @param bufferSize size of the buffer (in bytes)
+     */
+    public ChannelFilePrinter(String fileName, int bufferSize) {
+        if (bufferSize < MAX_BYTES_PER_CHAR) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MAX_BYTES_PER_CHAR + ": " + bufferSize);
+        }
+        this.fileName = fileName;
+        this.bufferSize = bufferSize;
+        this.channel = null;
+        this.direct = null;
+        this.buf = null;
+    }
+
+    @Override
+    public void open() {
+        if (channel == null) {
+            try {
+                channel = FileChannel.open(Paths.get(fileName),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException ex) {
+                channel = null;
+                throw new RuntimeException(ex);
+            }
+            if (buf == null) {
+                direct = ByteBuffer.allocateDirect(bufferSize);
+                buf = new byte[bufferSize];
+            }
+            pos = 0;
+            encoder.reset();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            try {
+                if (encoder.hasPending() && pos == buf.length) {
+                    flush();
+                }
+                pos = encoder.finish(buf, pos);
+                flush();
+            } finally {
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    throw new RuntimeException(ex);
+                } finally {
+                    channel = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void print(String s) {
+        if (channel == null) {
+            throw new RuntimeException("Stream is not open");
+        }
+        final byte[] b = buf;
+        for (int i = 0, n = s.length(); i < n;) {
+            //encode as many chars as are guaranteed to fit without checks
+            int end = Math.min(n, i + (b.length - pos) / MAX_BYTES_PER_CHAR);
+            if (end == i) {
+                flush();
+                continue;
+            }
+            pos = encoder.encode(s, i, end, b, pos);
+            i = end;
+        }
+    }
+
+    private void flush() {
+        direct.clear();
+        direct.put(buf, 0, pos);
+        direct.flip();
+        try {
+            while (direct.hasRemaining()) {
+                channel.write(direct);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        pos = 0;
+    }
+}
@@ -42,4 +42,16 @@ public interface IPrinter extends Closeable {
     public void close();
 
     public void print(String s);
+
+    /**
+     * Prints the formatted output of the class with the given name. The
+     * default ignores the class name. Implementations that route output by
+     * class (ex: {@link ShardedPrinter}) override this method.
+     *
+     * @param className
+     * @param s
+     */
+    public default void print(String className, String s) {
+        print(s);
+    }
 }
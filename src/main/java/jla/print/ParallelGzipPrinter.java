@@ -0,0 +1,248 @@
+package jla.print;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Implementation of {@link IPrinter} that prints everything (encoded as
+ * UTF-8) to a gzip file with the given name. Like {@code pigz}, the output is
+ * split into blocks that are compressed in parallel on a pool of threads but
+ * unlike {@code pigz} each block is a complete gzip member so the file is a
+ * multi-member gzip file (RFC 1952) that standard tools (including
+ * {@link java.util.zip.GZIPInputStream}) decompress as a whole.
+ *
+ * The compressed blocks are written in order on the printing thread and at
+ * most two blocks per compression thread are held in memory at once.
+ *
+ * NOTE: The methods of this class must be called from one thread at a time.
+ *
+ * @author Timothy Hoffman
+ */
+public class ParallelGzipPrinter implements IPrinter {
+
+    /**
+     * Default size of the uncompressed blocks (in bytes).
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 17;
+
+    private static final int MAX_BYTES_PER_CHAR = Utf8Encoder.MAX_BYTES_PER_CHAR;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final String fileName;
+    private final int blockSize;
+    private final int threads;
+    private final int level;
+    private final Utf8Encoder encoder = new Utf8Encoder();
+    private FileOutputStream file;
+    private ExecutorService pool;
+    private ArrayDeque<Future<byte[]>> pending;
+    private BlockingQueue<byte[]> free;
+    private byte[] block;
+    private int pos;
+    private boolean wroteMember;
+
+    public ParallelGzipPrinter(String fileName) {
+        this(fileName, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors(), Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param fileName
+     * @param blockSize size of the uncompressed blocks (in bytes)
+     * @param threads   number of compression threads
+     * @param level     compression level as defined by {@link Deflater}
+     */
+    public ParallelGzipPrinter(String fileName, int blockSize, int threads, int level) {
+        if (blockSize < MAX_BYTES_PER_CHAR) {
+            throw new IllegalArgumentException("Block size must be at least " + MAX_BYTES_PER_CHAR + ": " + blockSize);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.fileName = fileName;
+        this.blockSize = blockSize;
+        this.threads = threads;
+        this.level = level;
+        this.file = null;
+    }
+
+    @Override
+    public void open() {
+        if (file == null) {
+            try {
+                file = new FileOutputStream(fileName);
+            } catch (FileNotFoundException ex) {
+                file = null;
+                throw new RuntimeException(ex);
+            }
+            pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "jla-gzip-" + THREAD_COUNT.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            pending = new ArrayDeque<>();
+            free = new LinkedBlockingQueue<>();
+            block = new byte[blockSize];
+            pos = 0;
+            wroteMember = false;
+            encoder.reset();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (file != null) {
+            try {
+                if (encoder.hasPending() && pos == block.length) {
+                    submit();
+                }
+                pos = encoder.finish(block, pos);
+                //NOTE: an empty file is not valid gzip so write an empty member
+                if (pos > 0 || !wroteMember) {
+                    submit();
+                }
+                while (!pending.isEmpty()) {
+                    writeNext();
+                }
+            } finally {
+                pool.shutdownNow();
+                pool = null;
+                pending = null;
+                free = null;
+                block = null;
+                try {
+                    file.close();
+                } catch (IOException ex) {
+                    throw new RuntimeException(ex);
+                } finally {
+                    file = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void print(String s) {
+        if (file == null) {
+            throw new RuntimeException("Stream is not open");
+        }
+        for (int i = 0, n = s.length(); i < n;) {
+            //encode as many chars as are guaranteed to fit without checks
+            int end = Math.min(n, i + (block.length - pos) / MAX_BYTES_PER_CHAR);
+            if (end == i) {
+                submit();
+                continue;
+            }
+            pos = encoder.encode(s, i, end, block, pos);
+            i = end;
+        }
+    }
+
+    /**
+     * Starts compressing the current block and writes completed blocks while
+     * waiting if too many blocks are pending.
+     */
+    private void submit() {
+        final byte[] input = block;
+        final int len = pos;
+        pending.add(pool.submit(() -> {
+            byte[] member = compress(input, len, level);
+            free.add(input);
+            return member;
+        }));
+        wroteMember = true;
+        while (pending.size() > 2 * threads || (!pending.isEmpty() && pending.peek().isDone())) {
+            writeNext();
+        }
+        byte[] next = free.poll();
+        block = (next == null) ? new byte[blockSize] : next;
+        pos = 0;
+    }
+
+    private void writeNext() {
+        try {
+            file.write(pending.remove().get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * @return a complete gzip member containing the given bytes
+     */
+    static byte[] compress(byte[] input, int len, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(len / 4 + 64);
+        //header: magic, CM=deflate, FLG=0, MTIME=0, XFL=0, OS=unknown
+        out.write(0x1f);
+        out.write(0x8b);
+        out.write(Deflater.DEFLATED);
+        for (int i = 0; i < 6; i++) {
+            out.write(0);
+        }
+        out.write(0xff);
+
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(input, 0, len);
+            deflater.finish();
+            byte[] buf = new byte[Math.max(512, len / 4)];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(input, 0, len);
+        writeIntLE(out, (int) crc.getValue());
+        writeIntLE(out, len);
+        return out.toByteArray();
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int v) {
+        out.write(v);
+        out.write(v >>> 8);
+        out.write(v >>> 16);
+        out.write(v >>> 24);
+    }
+}
@@ -0,0 +1,433 @@
+package jla.print;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Implementation of {@link IPrinter} that splits the output into one file
+ * (i.e. shard) per {@link Key}, such as the package of each class. The shards
+ * are written to a directory named after the given file name without its
+ * extension and each shard file is named after its key with that extension
+ * (ex: "CP-ALL.csv" gives "CP-ALL/java.util.csv"). Characters of the key that
+ * are not safe in a file name are replaced by '_' and keys that are the same
+ * after that replacement share one shard.
+ *
+ * Output that is not associated with a class (ex: the header of the
+ * formatter) is written at the start of every shard and therefore must be
+ * printed before any class. Each shard is assigned to one of a fixed number
+ * of writer threads so the output of each shard is in the order it was
+ * printed. Each writer keeps at most its share of the maximum number of open
+ * files and closes the least recently used one when it needs another; a shard
+ * that is opened again is appended to. Existing shard files are replaced the
+ * first time they are written but other files in the directory are left
+ * untouched.
+ *
+ * NOTE: The methods of this class must be called from one thread at a time.
+ *
+ * @author Timothy Hoffman
+ */
+public class ShardedPrinter implements IPrinter {
+
+    /**
+     * Computes the shard of a class.
+     */
+    @FunctionalInterface
+    public interface Key {
+
+        /**
+         * @param className
+         *
+         * @return the name of the shard for the given class
+         */
+        public String shardOf(String className);
+    }
+
+    /**
+     * Name of the shard for classes in the default package.
+     */
+    public static final String DEFAULT_PACKAGE = "_default_";
+
+    /**
+     * Name of the shard for classes whose source cannot be found.
+     */
+    public static final String UNKNOWN_SOURCE = "_unknown_";
+
+    /**
+     * Shards the output by the package of each class.
+     */
+    public static final Key PACKAGE = className -> {
+        int dot = className.lastIndexOf('.');
+        return dot < 0 ? DEFAULT_PACKAGE : className.substring(0, dot);
+    };
+
+    /**
+     * Default maximum number of shard files open at the same time.
+     */
+    public static final int DEFAULT_MAX_OPEN = 64;
+
+    /**
+     * Default number of writer threads.
+     */
+    public static final int DEFAULT_WRITERS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Maximum number of outputs waiting for each writer thread.
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * How often a blocked {@link #print(String, String)} or {@link #close()}
+     * checks that the writer thread is still running.
+     */
+    private static final long WRITER_CHECK_MILLIS = 100;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /**
+     * The output of a class waiting to be written or {@link #END} to stop a
+     * writer thread.
+     */
+    private static final class Record {
+
+        final String shard;
+        final String text;
+
+        Record(String shard, String text) {
+            this.shard = shard;
+            this.text = text;
+        }
+    }
+
+    private static final Record END = new Record(null, null);
+
+    /**
+     * @param sourceOf gives the classpath entry containing each class (ex:
+     *                 the path of a jar file) or {@code null} if unknown
+     *
+     * @return a {@link Key} that shards the output by the base name of the
+     *         classpath entry containing each class (without any ".jar" or
+     *         ".zip" extension)
+     */
+    public static Key bySource(Function<String, String> sourceOf) {
+        return className -> {
+            String source = sourceOf.apply(className);
+            if (source == null) {
+                return UNKNOWN_SOURCE;
+            }
+            int end = source.length();
+            while (end > 0 && isSeparator(source.charAt(end - 1))) {
+                end--;
+            }
+            int start = end;
+            while (start > 0 && !isSeparator(source.charAt(start - 1))) {
+                start--;
+            }
+            if (source.regionMatches(true, end - 4, ".jar", 0, 4) || source.regionMatches(true, end - 4, ".zip", 0, 4)) {
+                end -= 4;
+            }
+            return start < end ? source.substring(start, end) : UNKNOWN_SOURCE;
+        };
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '/' || c == '\\';
+    }
+
+    private final String fileName;
+    private final Key key;
+    private final int maxOpen;
+    private final int writerCount;
+    private final StringBuilder header;
+    private File directory;
+    private String extension;
+    private Writer[] writers;
+    private String headerText;
+    private volatile Throwable failure;
+
+    /**
+     * @param fileName
+     * @param key
+     */
+    public ShardedPrinter(String fileName, Key key) {
+        this(fileName, key, DEFAULT_MAX_OPEN, DEFAULT_WRITERS);
+    }
+
+    /**
+     * @param fileName name of the output file that determines the directory
+     *                 and extension of the shards
+     * @param key      computes the shard of each class
+     * @param maxOpen  maximum number of shard files open at the same time
+     * @param writers  number of writer threads (at most {@code maxOpen})
+     */
+    public ShardedPrinter(String fileName, Key key, int maxOpen, int writers) {
+        if (fileName == null || key == null) {
+            throw new IllegalArgumentException("Parameters cannot be null!");
+        }
+        if (writers < 1 || maxOpen < writers) {
+            throw new IllegalArgumentException("Need at least one writer and one open file per writer: " + writers + ", " + maxOpen);
+        }
+        this.fileName = fileName;
+        this.key = key;
+        this.maxOpen = maxOpen;
+        this.writerCount = writers;
+        this.header = new StringBuilder();
+        this.writers = null;
+    }
+
+    /**
+     * @return the directory containing the shard files
+     */
+    public File directory() {
+        File f = new File(fileName);
+        String name = f.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? new File(f.getParentFile(), name.substring(0, dot)) : f;
+    }
+
+    @Override
+    public void open() {
+        if (writers == null) {
+            File dir = directory();
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new RuntimeException("Unable to create directory " + dir);
+            }
+            String name = new File(fileName).getName();
+            int dot = name.lastIndexOf('.');
+            directory = dir;
+            extension = dot > 0 ? name.substring(dot) : "";
+            header.setLength(0);
+            headerText = null;
+            failure = null;
+            writers = new Writer[writerCount];
+            for (int i = 0; i < writerCount; i++) {
+                //the first writers take any remainder of the open files
+                int share = maxOpen / writerCount + (i < maxOpen % writerCount ? 1 : 0);
+                writers[i] = new Writer(share);
+                writers[i].thread.start();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writers != null) {
+            try {
+                for (Writer w : writers) {
+                    w.offer(END);
+                }
+                for (Writer w : writers) {
+                    w.thread.join();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                for (Writer w : writers) {
+                    w.thread.interrupt();
+                }
+                throw new RuntimeException(ex);
+            } finally {
+                writers = null;
+            }
+            if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+        }
+    }
+
+    @Override
+    public void print(String s) {
+        checkOpen();
+        if (headerText != null) {
+            throw new IllegalStateException("Output without a class must be printed before any class");
+        }
+        header.append(s);
+    }
+
+    @Override
+    public void print(String className, String s) {
+        checkOpen();
+        if (headerText == null) {
+            headerText = header.toString();
+        }
+        //NOTE: keys that map to the same file name are the same shard so
+        //  that one writer owns each file
+        String shard = fileNameOf(key.shardOf(className));
+        Writer w = writers[(shard.hashCode() & Integer.MAX_VALUE) % writers.length];
+        try {
+            if (!w.offer(new Record(shard, s))) {
+                throw new RuntimeException("Writer thread stopped", failure);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private void checkOpen() {
+        if (writers == null) {
+            throw new RuntimeException("Stream is not open");
+        }
+        if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+    }
+
+    /**
+     * @return the given shard key with each character that is not safe in a
+     *         file name replaced by '_'
+     */
+    private static String fileNameOf(String shard) {
+        StringBuilder sb = null;
+        for (int i = 0, len = shard.length(); i < len; i++) {
+            char c = shard.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '_' || c == '-' || c == '$';
+            if (!safe && sb == null) {
+                sb = new StringBuilder(shard);
+            }
+            if (!safe) {
+                sb.setCharAt(i, '_');
+            }
+        }
+        return sb == null ? shard : sb.toString();
+    }
+
+    private File shardFile(String shard) {
+        return new File(directory, shard + extension);
+    }
+
+    /**
+     * A writer thread and the shard files it keeps open.
+     */
+    private final class Writer {
+
+        final BlockingQueue<Record> queue;
+        final Thread thread;
+        final Map<String, PrintStream> open;
+        final HashSet<String> created;
+
+        Writer(int maxOpen) {
+            this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            this.thread = new Thread(this::write, "jla-shard-" + THREAD_COUNT.incrementAndGet());
+            this.thread.setDaemon(true);
+            this.created = new HashSet<>();
+            //access order makes the eldest entry the least recently used
+            this.open = new LinkedHashMap<String, PrintStream>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PrintStream> eldest) {
+                    if (size() > maxOpen) {
+                        closeShard(eldest.getKey(), eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * Hands a record to the writer thread unless the writer thread
+         * stopped.
+         *
+         * @return {@code false} if the writer thread stopped
+         */
+        boolean offer(Record r) throws InterruptedException {
+            while (!queue.offer(r, WRITER_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!thread.isAlive()) {
+                    if (failure == null) {
+                        //NOTE: the thread died before it could record why
+                        failure = new IllegalStateException("Writer thread stopped");
+                    }
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Body of the writer thread.
+         */
+        private void write() {
+            try {
+                for (Record r; (r = queue.take()) != END;) {
+                    if (failure == null) {
+                        try {
+                            stream(r.shard).print(r.text);
+                        } catch (Throwable ex) {
+                            //keep taking records so the printing thread never blocks
+                            failure = ex;
+                        }
+                    }
+                }
+            } catch (Throwable ex) {
+                //includes InterruptedException
+                failure = ex;
+            } finally {
+                for (Iterator<Map.Entry<String, PrintStream>> it = open.entrySet().iterator(); it.hasNext();) {
+                    Map.Entry<String, PrintStream> e = it.next();
+                    closeShard(e.getKey(), e.getValue());
+                    it.remove();
+                }
+            }
+        }
+
+        private PrintStream stream(String shard) throws FileNotFoundException {
+            PrintStream s = open.get(shard);
+            if (s == null) {
+                boolean append = !created.add(shard);
+                s = new PrintStream(new BufferedOutputStream(new FileOutputStream(shardFile(shard), append)));
+                if (!append) {
+                    s.print(headerText);
+                }
+                open.put(shard, s);
+            }
+            return s;
+        }
+
+        private void closeShard(String shard, PrintStream s) {
+            s.close();
+            if (s.checkError() && failure == null) {
+                failure = new IOException("Unable to write " + shardFile(shard));
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package jla.print;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/**
+ * Encodes chars as UTF-8 into byte arrays without creating any intermediate
+ * objects. A surrogate pair may be split across calls to
+ * {@link #encode(String, int, int, byte[], int)}. As with
+ * {@link String#getBytes(java.nio.charset.Charset)}, unpaired surrogate chars
+ * are encoded as {@code '?'}.
+ *
+ * @author Timothy Hoffman
+ */
+final class Utf8Encoder {
+
+    /**
+     * Maximum bytes needed to encode a single char (a low surrogate char
+     * completes a 4-byte sequence).
+     */
+    static final int MAX_BYTES_PER_CHAR = 4;
+
+    /**
+     * High surrogate char waiting for the low surrogate (or 0 if none).
+     */
+    private char high;
+
+    /**
+     * Forgets any pending high surrogate.
+     */
+    void reset() {
+        high = 0;
+    }
+
+    /**
+     * Encodes the chars of the given String in the range [from, to) into the
+     * given array which must have at least
+     * {@code (to - from) * MAX_BYTES_PER_CHAR} bytes available at the given
+     * position.
+     *
+     * @return the position after the encoded bytes
+     */
+    int encode(String s, int from, int to, byte[] b, int p) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80 && high == 0) {
+                b[p++] = (byte) c;
+            } else {
+                p = encode(c, b, p);
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Encodes a pending (i.e. unpaired) high surrogate, if any, which requires
+     * at most 1 byte available at the given position.
+     *
+     * @return the position after the encoded bytes
+     */
+    int finish(byte[] b, int p) {
+        if (high != 0) {
+            high = 0;
+            b[p++] = '?';
+        }
+        return p;
+    }
+
+    /**
+     * @return {@code true} iff {@link #finish(byte[], int)} will write a byte
+     */
+    boolean hasPending() {
+        return high != 0;
+    }
+
+    private int encode(char c, byte[] b, int p) {
+        if (high != 0) {
+            char h = high;
+            high = 0;
+            if (Character.isLowSurrogate(c)) {
+                int cp = Character.toCodePoint(h, c);
+                b[p++] = (byte) (0xF0 | (cp >> 18));
+                b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (cp & 0x3F));
+                return p;
+            }
+            //the previous high surrogate was unpaired (NOTE: '?' plus any
+            //  char below still fits within MAX_BYTES_PER_CHAR)
+            b[p++] = '?';
+        }
+        if (c < 0x80) {
+            b[p++] = (byte) c;
+        } else if (c < 0x800) {
+            b[p++] = (byte) (0xC0 | (c >> 6));
+            b[p++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            high = c;
+        } else if (Character.isLowSurrogate(c)) {
+            b[p++] = '?';
+        } else {
+            b[p++] = (byte) (0xE0 | (c >> 12));
+            b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            b[p++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return p;
+    }
+}
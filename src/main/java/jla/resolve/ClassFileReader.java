@@ -0,0 +1,317 @@
+package jla.resolve;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Minimal reader for the Java class file format that extracts only the
+ * information needed to format classes: access flags and names of the class,
+ * and the access flags, names, and descriptors of its fields and methods.
+ * Attributes (including code) are skipped without being parsed, except that
+ * the {@code Synthetic} and {@code Deprecated} attributes are merged into the
+ * access flags as done by ASM (which Soot uses to read class files).
+ *
+ * @author Timothy Hoffman
+ */
+public final class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /**
+     * Pseudo access flag set for members with the {@code Synthetic} attribute
+     * (i.e. the same as {@code ACC_SYNTHETIC}).
+     */
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    /**
+     * Pseudo access flag set for members with the {@code Deprecated}
+     * attribute. This is the same value used by ASM and therefore Soot.
+     */
+    private static final int ACC_DEPRECATED = 0x20000;
+
+    //constant pool tags
+    private static final int CONSTANT_Utf8 = 1;
+    private static final int CONSTANT_Integer = 3;
+    private static final int CONSTANT_Float = 4;
+    private static final int CONSTANT_Long = 5;
+    private static final int CONSTANT_Double = 6;
+    private static final int CONSTANT_Class = 7;
+    private static final int CONSTANT_String = 8;
+    private static final int CONSTANT_Fieldref = 9;
+    private static final int CONSTANT_Methodref = 10;
+    private static final int CONSTANT_InterfaceMethodref = 11;
+    private static final int CONSTANT_NameAndType = 12;
+    private static final int CONSTANT_MethodHandle = 15;
+    private static final int CONSTANT_MethodType = 16;
+    private static final int CONSTANT_Dynamic = 17;
+    private static final int CONSTANT_InvokeDynamic = 18;
+    private static final int CONSTANT_Module = 19;
+    private static final int CONSTANT_Package = 20;
+
+    /**
+     * A field or method declared in a class file.
+     */
+    public static final class Member {
+
+        private final int access;
+        private final String name;
+        private final String descriptor;
+
+        private Member(int access, String name, String descriptor) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * @return the access flags of the member
+         */
+        public int access() {
+            return access;
+        }
+
+        /**
+         * @return the simple name of the member
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return the JVM type descriptor of the member
+         */
+        public String descriptor() {
+            return descriptor;
+        }
+    }
+
+    private final int access;
+    private final String className;
+    private final List<Member> fields;
+    private final List<Member> methods;
+
+    private ClassFileReader(int access, String className, List<Member> fields, List<Member> methods) {
+        this.access = access;
+        this.className = className;
+        this.fields = fields;
+        this.methods = methods;
+    }
+
+    /**
+     * @return the access flags of the class
+     */
+    public int access() {
+        return access;
+    }
+
+    /**
+     * @return the binary name of the class (ex: "java.lang.String")
+     */
+    public String className() {
+        return className;
+    }
+
+    /**
+     * @return the fields declared in the class in class file order
+     */
+    public List<Member> fields() {
+        return fields;
+    }
+
+    /**
+     * @return the methods declared in the class in class file order
+     */
+    public List<Member> methods() {
+        return methods;
+    }
+
+    /**
+     * @param bytes the content of a class file
+     *
+     * @return
+     *
+     * @throws IOException if the bytes are not a valid class file
+     */
+    public static ClassFileReader parse(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        String[] utf8 = readConstantPool(in, true);
+        int access = in.readUnsignedShort();
+        String className = utf8[in.readUnsignedShort()];
+        in.readUnsignedShort();//super_class
+        skip(in, 2 * in.readUnsignedShort());//interfaces
+        List<Member> fields = readMembers(in, utf8);
+        List<Member> methods = readMembers(in, utf8);
+        access |= readAttributes(in, utf8);
+        return new ClassFileReader(access, className.replace('/', '.'), fields, methods);
+    }
+
+    /**
+     * Reads only as far as the access flags of the class.
+     *
+     * @param in stream positioned at the start of a class file
+     *
+     * @return the access flags of the class
+     *
+     * @throws IOException if the stream does not contain a valid class file
+     */
+    public static int readAccessFlags(InputStream in) throws IOException {
+        DataInputStream din = new DataInputStream(in);
+        readConstantPool(din, false);
+        return din.readUnsignedShort();
+    }
+
+    /**
+     * Reads the header and constant pool of a class file.
+     *
+     * @param decode {@code false} to skip the constants without decoding them
+     *
+     * @return UTF8 constants by index with the name of each Class constant
+     *         stored at the index of the Class constant (or {@code null} if
+     *         not decoded)
+     */
+    private static String[] readConstantPool(DataInputStream in, boolean decode) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort();//minor
+        in.readUnsignedShort();//major
+        int count = in.readUnsignedShort();
+        String[] utf8 = decode ? new String[count] : null;
+        int[] classes = null;
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case CONSTANT_Utf8:
+                    if (decode) {
+                        utf8[i] = in.readUTF();
+                    } else {
+                        skip(in, in.readUnsignedShort());
+                    }
+                    break;
+                case CONSTANT_Class:
+                    if (!decode) {
+                        skip(in, 2);
+                        break;
+                    }
+                    if (classes == null) {
+                        classes = new int[count];
+                    }
+                    classes[i] = in.readUnsignedShort();
+                    break;
+                case CONSTANT_String:
+                case CONSTANT_MethodType:
+                case CONSTANT_Module:
+                case CONSTANT_Package:
+                    skip(in, 2);
+                    break;
+                case CONSTANT_MethodHandle:
+                    skip(in, 3);
+                    break;
+                case CONSTANT_Integer:
+                case CONSTANT_Float:
+                case CONSTANT_Fieldref:
+                case CONSTANT_Methodref:
+                case CONSTANT_InterfaceMethodref:
+                case CONSTANT_NameAndType:
+                case CONSTANT_Dynamic:
+                case CONSTANT_InvokeDynamic:
+                    skip(in, 4);
+                    break;
+                case CONSTANT_Long:
+                case CONSTANT_Double:
+                    skip(in, 8);
+                    i++;//occupies two entries
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag + " at index " + i);
+            }
+        }
+        //Class constants never refer to another Class constant so their names
+        //  can be stored in the same array once all UTF8 entries are known.
+        if (classes != null) {
+            for (int i = 1; i < count; i++) {
+                if (classes[i] != 0) {
+                    utf8[i] = utf8[classes[i]];
+                }
+            }
+        }
+        return utf8;
+    }
+
+    private static List<Member> readMembers(DataInputStream in, String[] utf8) throws IOException {
+        int count = in.readUnsignedShort();
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        ArrayList<Member> ret = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int access = in.readUnsignedShort();
+            String name = utf8[in.readUnsignedShort()];
+            String descriptor = utf8[in.readUnsignedShort()];
+            access |= readAttributes(in, utf8);
+            ret.add(new Member(access, name, descriptor));
+        }
+        return ret;
+    }
+
+    /**
+     * Skips over an attribute table.
+     *
+     * @return pseudo access flags for the attributes that were found
+     */
+    private static int readAttributes(DataInputStream in, String[] utf8) throws IOException {
+        int flags = 0;
+        for (int a = in.readUnsignedShort(); a > 0; a--) {
+            String name = utf8[in.readUnsignedShort()];
+            if ("Synthetic".equals(name)) {
+                flags |= ACC_SYNTHETIC;
+            } else if ("Deprecated".equals(name)) {
+                flags |= ACC_DEPRECATED;
+            }
+            skip(in, in.readInt());
+        }
+        return flags;
+    }
+
+    private static void skip(DataInputStream in, int n) throws IOException {
+        if (n < 0) {
+            throw new IOException("Invalid length " + n);
+        }
+        while (n > 0) {
+            int skipped = in.skipBytes(n);
+            if (skipped <= 0) {
+                in.readByte();//throws EOFException at the end of the stream
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package jla.resolve;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jla.resolve.ClassFileReader.Member;
+import soot.*;
+
+/**
+ * Implementation of {@link IClassResolver} that reads the class file directly
+ * (via {@link ClassFileReader}) instead of resolving it through the Soot
+ * {@link Scene}. The resulting {@link SootClass} contains only the
+ * signatures of its fields and methods (no bodies, super classes, etc.) and
+ * is not added to the {@link Scene}. Supporting classes are never loaded.
+ *
+ * The modifiers and types are converted exactly as Soot converts them when
+ * it loads a class file so all formatters produce the same output as with
+ * {@link SootSceneResolver}.
+ *
+ * @author Timothy Hoffman
+ */
+public enum ClassFileResolver implements IClassResolver {
+
+    INST;
+
+    /**
+     * Soot clears the {@code ACC_SUPER} flag from class modifiers.
+     */
+    private static final int ACC_SUPER = 0x0020;
+
+    /**
+     * Guards reading class files against {@link #setClasspath(List)} closing
+     * the {@link ClassLocator} that is being read.
+     */
+    private final Object lock = new Object();
+
+    private volatile ClassLocator locator = new ClassLocator(null);
+
+    @Override
+    public void setClasspath(List<String> paths) {
+        synchronized (lock) {
+            ClassLocator old = locator;
+            locator = new ClassLocator(paths);
+            old.close();
+        }
+    }
+
+    /**
+     * NOTE: the returned {@link ClassLocator} is closed when the classpath
+     * changes.
+     *
+     * @return the {@link ClassLocator} used to find class files
+     */
+    public ClassLocator locator() {
+        return locator;
+    }
+
+    @Override
+    public SootClass resolve(String className) {
+        SootSceneResolver.scene();//ensure the Soot options are initialized
+        ClassFileReader cf;
+        try {
+            byte[] bytes;
+            synchronized (lock) {
+                bytes = locator.read(className);
+            }
+            if (bytes == null) {
+                throw new RuntimeException("couldn't find class: " + className);
+            }
+            cf = ClassFileReader.parse(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        //NOTE: the SootClass constructor binds itself to the RefType interned
+        //  in the Scene. Restore the previous binding afterwards so that the
+        //  Scene does not retain every class read by this resolver and so any
+        //  class loaded by SootSceneResolver remains bound to its RefType.
+        RefType type = RefType.v(className);
+        SootClass previous = type.hasSootClass() ? type.getSootClass() : null;
+        SootClass clazz = new SootClass(className, cf.access() & ~ACC_SUPER);
+        type.setSootClass(previous);
+        for (Member f : cf.fields()) {
+            clazz.getOrAddField(new SootField(f.name(), toType(f.descriptor(), 0, f.descriptor().length()), f.access()));
+        }
+        for (Member m : cf.methods()) {
+            String desc = m.descriptor();
+            int close = desc.indexOf(')');
+            clazz.getOrAddMethod(new SootMethod(m.name(), toTypes(desc, 1, close), toType(desc, close + 1, desc.length()), m.access()));
+        }
+        clazz.setResolvingLevel(SootClass.SIGNATURES);
+        return clazz;
+    }
+
+    /**
+     * @param desc  method descriptor
+     * @param start index of the first parameter type
+     * @param end   index of the closing parenthesis
+     *
+     * @return the parameter types in the given range of the descriptor
+     */
+    private static List<Type> toTypes(String desc, int start, int end) {
+        if (start == end) {
+            return Collections.emptyList();
+        }
+        ArrayList<Type> ret = new ArrayList<>();
+        while (start < end) {
+            int next = endOfType(desc, start);
+            ret.add(toType(desc, start, next));
+            start = next;
+        }
+        return ret;
+    }
+
+    private static int endOfType(String desc, int start) {
+        while (desc.charAt(start) == '[') {
+            start++;
+        }
+        return desc.charAt(start) == 'L' ? desc.indexOf(';', start) + 1 : start + 1;
+    }
+
+    /**
+     * @param desc
+     * @param start index of the first character of the type
+     * @param end   index after the last character of the type
+     *
+     * @return the Soot {@link Type} for the single type descriptor in the
+     *         given range of the descriptor
+     */
+    private static Type toType(String desc, int start, int end) {
+        int dims = 0;
+        while (desc.charAt(start + dims) == '[') {
+            dims++;
+        }
+        Type base;
+        char c = desc.charAt(start + dims);
+        switch (c) {
+            case 'B':
+                base = ByteType.v();
+                break;
+            case 'C':
+                base = CharType.v();
+                break;
+            case 'D':
+                base = DoubleType.v();
+                break;
+            case 'F':
+                base = FloatType.v();
+                break;
+            case 'I':
+                base = IntType.v();
+                break;
+            case 'J':
+                base = LongType.v();
+                break;
+            case 'S':
+                base = ShortType.v();
+                break;
+            case 'Z':
+                base = BooleanType.v();
+                break;
+            case 'V':
+                base = VoidType.v();
+                break;
+            case 'L':
+                base = RefType.v(desc.substring(start + dims + 1, end - 1).replace('/', '.'));
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid descriptor: " + desc);
+        }
+        return dims == 0 ? base : ArrayType.v(base, dims);
+    }
+}
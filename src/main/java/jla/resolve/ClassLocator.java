@@ -0,0 +1,215 @@
+package jla.resolve;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Finds the class file bytes for a class name on a classpath of jars, zips,
+ * and directories. If no classpath is given, class files are found using the
+ * system {@link ClassLoader} (i.e. the JDK and {@code java.class.path}), the
+ * same classes that Soot finds with its default classpath.
+ *
+ * @author Timothy Hoffman
+ */
+public final class ClassLocator implements Closeable {
+
+    /**
+     * Placeholder for paths that could not be opened as a zip file.
+     */
+    private static final Object NOT_A_ZIP = new Object();
+
+    private final List<String> paths;
+    private final ConcurrentHashMap<String, Object> opened;
+
+    /**
+     * @param paths the classpath to search or {@code null} to search the
+     *              classes available to the system {@link ClassLoader}
+     */
+    public ClassLocator(List<String> paths) {
+        this.paths = paths;
+        this.opened = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param className
+     *
+     * @return the name of the class file for the given class name (ex:
+     *         "java/lang/String.class")
+     */
+    public static String toFileName(String className) {
+        return className.replace('.', '/') + ".class";
+    }
+
+    /**
+     * @param className
+     *
+     * @return the classpath entry that contains the given class, the empty
+     *         String if the class is found by the system {@link ClassLoader},
+     *         or {@code null} if the class cannot be found
+     */
+    public String findSource(String className) {
+        String fileName = toFileName(className);
+        if (paths == null) {
+            return ClassLoader.getSystemResource(fileName) == null ? null : "";
+        }
+        for (String path : paths) {
+            File f = new File(path);
+            if (f.isDirectory()) {
+                if (new File(f, fileName).isFile()) {
+                    return path;
+                }
+            } else {
+                ZipFile zip = openZip(path);
+                if (zip != null && zip.getEntry(fileName) != null) {
+                    return path;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param className
+     *
+     * @return the bytes of the class file for the given class or {@code null}
+     *         if the class cannot be found
+     *
+     * @throws IOException
+     */
+    public byte[] read(String className) throws IOException {
+        String fileName = toFileName(className);
+        if (paths == null) {
+            try (InputStream in = ClassLoader.getSystemResourceAsStream(fileName)) {
+                return in == null ? null : readAll(in, -1);
+            }
+        }
+        for (String path : paths) {
+            File f = new File(path);
+            if (f.isDirectory()) {
+                File classFile = new File(f, fileName);
+                if (classFile.isFile()) {
+                    try (InputStream in = new FileInputStream(classFile)) {
+                        return readAll(in, classFile.length());
+                    }
+                }
+            } else {
+                ZipFile zip = openZip(path);
+                if (zip != null) {
+                    ZipEntry entry = zip.getEntry(fileName);
+                    if (entry != null) {
+                        try (InputStream in = zip.getInputStream(entry)) {
+                            return readAll(in, entry.getSize());
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private ZipFile openZip(String path) {
+        Object z = opened.get(path);
+        if (z == null) {
+            File f = new File(path);
+            if (f.isFile()) {
+                try {
+                    z = new ZipFile(f);
+                } catch (IOException ex) {
+                    //ignore if unable to read class path item
+                    System.err.println("[ClassLocator] while processing " + path + ": " + ex);
+                    z = NOT_A_ZIP;
+                }
+            } else {
+                //NOTE: it's possible the classpath could contain paths that don't exist
+                z = NOT_A_ZIP;
+            }
+            Object prev = opened.putIfAbsent(path, z);
+            if (prev != null) {
+                closeQuietly(z);
+                z = prev;
+            }
+        }
+        return z instanceof ZipFile ? (ZipFile) z : null;
+    }
+
+    /**
+     * Reads the remaining bytes of the given {@link InputStream}.
+     *
+     * @param in
+     * @param sizeHint expected number of bytes or a negative value if unknown
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    public static byte[] readAll(InputStream in, long sizeHint) throws IOException {
+        byte[] buf = new byte[sizeHint > 0 && sizeHint < Integer.MAX_VALUE ? (int) sizeHint : 8192];
+        int len = 0;
+        for (int n; (n = in.read(buf, len, buf.length - len)) >= 0;) {
+            len += n;
+            if (len == buf.length) {
+                int next = in.read();
+                if (next < 0) {
+                    break;
+                }
+                byte[] bigger = new byte[buf.length * 2];
+                System.arraycopy(buf, 0, bigger, 0, len);
+                buf = bigger;
+                buf[len++] = (byte) next;
+            }
+        }
+        if (len == buf.length) {
+            return buf;
+        }
+        byte[] ret = new byte[len];
+        System.arraycopy(buf, 0, ret, 0, len);
+        return ret;
+    }
+
+    private static void closeQuietly(Object z) {
+        if (z instanceof ZipFile) {
+            try {
+                ((ZipFile) z).close();
+            } catch (IOException ex) {
+                //nothing more can be done
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Object z : opened.values()) {
+            closeQuietly(z);
+        }
+        opened.clear();
+    }
+}
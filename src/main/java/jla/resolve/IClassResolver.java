@@ -0,0 +1,86 @@
+package jla.resolve;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+import soot.SootClass;
+
+/**
+ * Interface for obtaining the {@link SootClass} (with the signatures of all
+ * of its fields and methods) for a class name. The implementation defines
+ * where the class information comes from and how much of it is resolved.
+ *
+ * @author Timothy Hoffman
+ */
+public interface IClassResolver {
+
+    /**
+     * Sets the paths (jars, zips, or directories) where classes are found.
+     *
+     * @param paths the paths to search or {@code null} to use the default
+     *              classpath of the implementation
+     */
+    public void setClasspath(List<String> paths);
+
+    /**
+     * NOTE: Implementations are not required to be thread-safe so this must
+     * only be called from one thread at a time.
+     *
+     * @param className
+     *
+     * @return the {@link SootClass} with the given name (never {@code null})
+     *
+     * @throws RuntimeException if the class cannot be found or resolved
+     */
+    public SootClass resolve(String className);
+
+    /**
+     * @return {@code true} if {@link #release()} should be called before the
+     *         next class is resolved to bound the memory used by the resolver
+     */
+    public default boolean isFull() {
+        return false;
+    }
+
+    /**
+     * Releases all classes resolved so far. The default does nothing.
+     *
+     * NOTE: The caller must ensure that no {@link SootClass} returned by
+     * {@link #resolve(String)} is still in use (ex: being formatted on another
+     * thread) since the implementation may reset the state they depend on.
+     */
+    public default void release() {
+    }
+
+    /**
+     * @return a short name for this resolver that is safe for inclusion in a
+     *         file name
+     */
+    //NOTE: this signature aligns with the name() method in java.lang.Enum
+    //  allowing less boilerplate for IClassResolver instances declared as enums.
+    public String name();
+}
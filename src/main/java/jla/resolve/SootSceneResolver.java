@@ -0,0 +1,183 @@
+package jla.resolve;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import soot.G;
+import soot.Scene;
+import soot.SootClass;
+import soot.options.Options;
+
+/**
+ * Implementation of {@link IClassResolver} that loads each class into the
+ * Soot {@link Scene}. The constants differ in the level that the requested
+ * class is resolved to which determines how many supporting classes Soot
+ * loads along with it.
+ *
+ * @author Timothy Hoffman
+ */
+public enum SootSceneResolver implements IClassResolver {
+
+    /**
+     * Fully loads each class (and its supporting classes) via
+     * {@link Scene#loadClassAndSupport(String)}, i.e. to the
+     * {@link SootClass#BODIES} level so every class referenced from the
+     * constant pool is brought to the {@link SootClass#HIERARCHY} level.
+     */
+    INST {
+        @Override
+        public SootClass resolve(String className) {
+            return SOOT_SCENE.loadClassAndSupport(className);
+        }
+    },
+    /**
+     * Loads each class only to the {@link SootClass#SIGNATURES} level, i.e.
+     * the declared fields and methods. Soot still brings the super types to
+     * {@link SootClass#SIGNATURES} and the types in the member signatures to
+     * {@link SootClass#HIERARCHY} but classes that are only referenced from
+     * method bodies are not loaded. Any other class is only loaded if a
+     * filter or formatter requests it from the {@link Scene}.
+     */
+    SIGNATURES {
+        @Override
+        public SootClass resolve(String className) {
+            return SOOT_SCENE.loadClass(className, SootClass.SIGNATURES);
+        }
+    };
+
+    private static volatile Scene SOOT_SCENE = newScene();
+    private static volatile String CLASSPATH = null;
+    private static volatile int MAX_CLASSES = 0;
+    private static final LongAdder REBUILDS = new LongAdder();
+
+    /**
+     * Sets the Soot {@link Options} and then initializes the {@link Scene}.
+     */
+    private static Scene newScene() {
+        final Options opts = Options.v();
+        opts.set_drop_bodies_after_load(true);//clear up memory
+        opts.set_full_resolver(false);//resolve only on demand
+        opts.set_allow_phantom_refs(false);//don't swallow errors
+        opts.set_no_bodies_for_excluded(false);//otherwise, allows phandom refs
+        opts.set_permissive_resolving(false);//don't swallow errors
+        opts.set_include_all(true);//empty default excluded packages list
+//        opts.set_debug_resolver(true);
+
+        //NOTE: options must be set before initializing the Scene
+        return Scene.v();
+    }
+
+    /**
+     * NOTE: Any code that needs the {@link Scene} (including code that only
+     * creates Soot types) must obtain it via this method so that the Soot
+     * {@link Options} are set before the {@link Scene} is initialized.
+     *
+     * @return the Soot {@link Scene}
+     */
+    public static Scene scene() {
+        return SOOT_SCENE;
+    }
+
+    /**
+     * Bounds the memory used by the {@link Scene}. Once the {@link Scene}
+     * holds at least the given number of classes, the resolver
+     * {@link #isFull() is full} and {@link #release()} resets all of Soot via
+     * {@link G#reset()} and creates a new {@link Scene} with the same
+     * {@link Options} and classpath. The caller of {@link #release()} must
+     * ensure that no class from the old {@link Scene} is still being used
+     * since code that obtains Soot types via {@link Scene#v()} would see the
+     * new {@link Scene}.
+     *
+     * NOTE: the limit includes supporting classes so it should be well above
+     * the number of classes that one class needs (ex: 5000).
+     *
+     * @param maxClasses maximum number of classes in the {@link Scene} or 0
+     *                   for no limit (the default)
+     */
+    public static void setMaxClasses(int maxClasses) {
+        if (maxClasses < 0) {
+            throw new IllegalArgumentException("Invalid number of classes: " + maxClasses);
+        }
+        MAX_CLASSES = maxClasses;
+    }
+
+    /**
+     * @return number of times the {@link Scene} was rebuilt via
+     *         {@link #release()}
+     */
+    public static long rebuilds() {
+        return REBUILDS.sum();
+    }
+
+    @Override
+    public boolean isFull() {
+        int max = MAX_CLASSES;
+        return max > 0 && SOOT_SCENE.getClasses().size() >= max;
+    }
+
+    /**
+     * Rebuilds the {@link Scene} (see {@link #setMaxClasses(int)}).
+     */
+    @Override
+    public void release() {
+        rebuild();
+        REBUILDS.increment();
+    }
+
+    private static void rebuild() {
+        G.reset();
+        Scene scene = newScene();
+        scene.setSootClassPath(CLASSPATH);
+        SOOT_SCENE = scene;
+    }
+
+    /**
+     * NOTE: Changing the classpath rebuilds the {@link Scene} (same as
+     * {@link #release()}) since the classes already in the {@link Scene}
+     * could differ from the classes with the same name on the new classpath.
+     *
+     * @param paths
+     */
+    @Override
+    public void setClasspath(List<String> paths) {
+        String classpath = null;
+        if (paths != null) {
+            StringBuilder sb = new StringBuilder();
+            for (String s : paths) {
+                sb.append(s).append(File.pathSeparatorChar);
+            }
+            classpath = sb.toString();
+        }
+        if (!Objects.equals(classpath, CLASSPATH)) {
+            CLASSPATH = classpath;
+            rebuild();
+        }
+    }
+}
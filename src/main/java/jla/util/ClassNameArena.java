@@ -0,0 +1,374 @@
+package jla.util;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Compact append-only {@link java.util.List} of class names. Rather than one
+ * {@link String} per class, the UTF-8 bytes of the simple names are stored in
+ * a shared byte arena and each distinct package is stored only once, so a
+ * class costs two ints plus the bytes of its simple name. The {@link String}
+ * of a class name is only created when it is requested via
+ * {@link #get(int)}.
+ *
+ * NOTE: not thread-safe while names are appended but safe to read from
+ * multiple threads once it is published.
+ *
+ * @author Timothy Hoffman
+ */
+public final class ClassNameArena extends AbstractList<String> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    //simple names (after the last '.') of all classes
+    private byte[] names;
+    private int namesUsed;
+    //per class: start of the simple name in names[] and index of its package
+    private int[] nameStart;
+    private int[] namePackage;
+    private int size;
+
+    //distinct packages (without the trailing '.'), package 0 is the default
+    private byte[] packages;
+    private int packagesUsed;
+    private int[] packageStart;
+    private int packageCount;
+    //open addressing hash table of package index + 1 (0 when empty)
+    private int[] packageTable;
+
+    //scratch space for the UTF-8 bytes of the name being appended
+    private byte[] scratch = new byte[256];
+
+    public ClassNameArena() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize expected number of class names
+     */
+    public ClassNameArena(int expectedSize) {
+        int capacity = Math.max(INITIAL_CAPACITY, expectedSize);
+        this.names = new byte[capacity * 16];
+        this.nameStart = new int[capacity + 1];
+        this.namePackage = new int[capacity];
+        this.packages = new byte[256];
+        this.packageStart = new int[INITIAL_CAPACITY + 1];
+        this.packageTable = new int[INITIAL_CAPACITY * 2];
+        //the default package
+        this.packageCount = 1;
+    }
+
+    /**
+     * @param className name of a class (like "java.lang.String")
+     */
+    public void append(CharSequence className) {
+        int len = className.length();
+        ensureScratch(len * 3);
+        int lastDot = -1;
+        int pos = 0;
+        for (int i = 0; i < len; i++) {
+            char c = className.charAt(i);
+            if (c >= 0x80) {
+                //not ASCII so fall back to a full UTF-8 encode
+                byte[] bytes = className.toString().getBytes(StandardCharsets.UTF_8);
+                ensureScratch(bytes.length);
+                System.arraycopy(bytes, 0, scratch, 0, bytes.length);
+                append(bytes.length, lastIndexOf(scratch, bytes.length, (byte) '.'));
+                return;
+            }
+            if (c == '.') {
+                lastDot = pos;
+            }
+            scratch[pos++] = (byte) c;
+        }
+        append(pos, lastDot);
+    }
+
+    /**
+     * Appends the class name from the name of the current entry of a
+     * {@link ZipCentralDirectory} without decoding it.
+     *
+     * @param entry
+     * @param length number of name bytes that form the class file name
+     *               without the ".class" suffix
+     */
+    public void append(ZipCentralDirectory.Cursor entry, int length) {
+        ensureScratch(length);
+        int lastDot = -1;
+        for (int i = 0; i < length; i++) {
+            byte b = entry.nameByte(i);
+            if (b == '/') {
+                b = '.';
+                lastDot = i;
+            }
+            scratch[i] = b;
+        }
+        append(length, lastDot);
+    }
+
+    private void append(int len, int lastDot) {
+        int pkg = lastDot < 0 ? 0 : packageOf(lastDot);
+        int simpleLen = len - lastDot - 1;
+        if (size == namePackage.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+            namePackage = Arrays.copyOf(namePackage, capacity);
+            nameStart = Arrays.copyOf(nameStart, capacity + 1);
+        }
+        if (namesUsed + simpleLen > names.length) {
+            names = Arrays.copyOf(names, Math.max(namesUsed + simpleLen, names.length + (names.length >> 1)));
+        }
+        System.arraycopy(scratch, lastDot + 1, names, namesUsed, simpleLen);
+        namePackage[size] = pkg;
+        nameStart[size] = namesUsed;
+        namesUsed += simpleLen;
+        nameStart[++size] = namesUsed;
+        modCount++;
+    }
+
+    /**
+     * @param len number of bytes at the start of the scratch space that form
+     *            the package name
+     *
+     * @return the index of the package (added if new)
+     */
+    private int packageOf(int len) {
+        //classes are mostly grouped by package so try the last one first
+        if (size > 0 && packageEquals(namePackage[size - 1], len)) {
+            return namePackage[size - 1];
+        }
+        int hash = 1;
+        for (int i = 0; i < len; i++) {
+            hash = 31 * hash + scratch[i];
+        }
+        int mask = packageTable.length - 1;
+        int slot = mix(hash) & mask;
+        for (int id; (id = packageTable[slot]) != 0; slot = (slot + 1) & mask) {
+            if (packageEquals(id - 1, len)) {
+                return id - 1;
+            }
+        }
+        int pkg = packageCount++;
+        if (pkg + 1 >= packageStart.length) {
+            packageStart = Arrays.copyOf(packageStart, packageStart.length * 2);
+        }
+        if (packagesUsed + len > packages.length) {
+            packages = Arrays.copyOf(packages, Math.max(packagesUsed + len, packages.length * 2));
+        }
+        System.arraycopy(scratch, 0, packages, packagesUsed, len);
+        packageStart[pkg] = packagesUsed;
+        packagesUsed += len;
+        packageStart[pkg + 1] = packagesUsed;
+        packageTable[slot] = pkg + 1;
+        if (packageCount * 2 > packageTable.length) {
+            rehash();
+        }
+        return pkg;
+    }
+
+    private boolean packageEquals(int pkg, int len) {
+        if (pkg == 0) {
+            return false;
+        }
+        int start = packageStart[pkg];
+        if (packageStart[pkg + 1] - start != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (packages[start + i] != scratch[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        int[] table = new int[packageTable.length * 2];
+        int mask = table.length - 1;
+        for (int pkg = 1; pkg < packageCount; pkg++) {
+            int hash = 1;
+            for (int i = packageStart[pkg]; i < packageStart[pkg + 1]; i++) {
+                hash = 31 * hash + packages[i];
+            }
+            int slot = mix(hash) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = pkg + 1;
+        }
+        packageTable = table;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void ensureScratch(int len) {
+        if (len > scratch.length) {
+            scratch = new byte[Math.max(len, scratch.length * 2)];
+        }
+    }
+
+    private static int lastIndexOf(byte[] bytes, int len, byte b) {
+        for (int i = len - 1; i >= 0; i--) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Releases the unused capacity. Names may still be appended afterwards.
+     */
+    public void trimToSize() {
+        names = Arrays.copyOf(names, namesUsed);
+        nameStart = Arrays.copyOf(nameStart, size + 1);
+        namePackage = Arrays.copyOf(namePackage, size);
+        packages = Arrays.copyOf(packages, packagesUsed);
+        packageStart = Arrays.copyOf(packageStart, packageCount + 1);
+    }
+
+    /**
+     * @return approximate number of bytes used by the arrays of this list
+     */
+    public long byteSize() {
+        return names.length + 4L * (nameStart.length + namePackage.length)
+                + packages.length + 4L * (packageStart.length + packageTable.length) + scratch.length;
+    }
+
+    /**
+     * @return number of distinct packages (including the default package)
+     */
+    public int packageCount() {
+        return packageCount;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int pkg = namePackage[index];
+        int pStart = packageStart[pkg];
+        int pLen = pkg == 0 ? 0 : packageStart[pkg + 1] - pStart;
+        int nStart = nameStart[index];
+        int nLen = nameStart[index + 1] - nStart;
+        int len = pkg == 0 ? nLen : pLen + 1 + nLen;
+        char[] chars = new char[len];
+        int pos = 0;
+        if (pkg != 0) {
+            for (int i = 0; i < pLen; i++) {
+                byte b = packages[pStart + i];
+                if (b < 0) {
+                    return decode(pStart, pLen, nStart, nLen);
+                }
+                chars[pos++] = (char) b;
+            }
+            chars[pos++] = '.';
+        }
+        for (int i = 0; i < nLen; i++) {
+            byte b = names[nStart + i];
+            if (b < 0) {
+                return decode(pkg == 0 ? -1 : pStart, pLen, nStart, nLen);
+            }
+            chars[pos++] = (char) b;
+        }
+        return new String(chars);
+    }
+
+    private String decode(int pStart, int pLen, int nStart, int nLen) {
+        String simple = new String(names, nStart, nLen, StandardCharsets.UTF_8);
+        return pStart < 0 ? simple : new String(packages, pStart, pLen, StandardCharsets.UTF_8) + '.' + simple;
+    }
+
+    /**
+     * Splits by index range like the {@link Spliterator} of an
+     * {@link java.util.ArrayList}.
+     */
+    @Override
+    public Spliterator<String> spliterator() {
+        return new RangeSpliterator(0, size);
+    }
+
+    private final class RangeSpliterator implements Spliterator<String> {
+
+        private int from;
+        private final int to;
+
+        RangeSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (from < to) {
+                action.accept(get(from++));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            while (from < to) {
+                action.accept(get(from++));
+            }
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            int mid = (from + to) >>> 1;
+            if (mid <= from) {
+                return null;
+            }
+            Spliterator<String> prefix = new RangeSpliterator(from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
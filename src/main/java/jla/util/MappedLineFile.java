@@ -0,0 +1,209 @@
+package jla.util;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily reads the lines of a UTF-8 text file via a memory mapping so a
+ * {@link String} is only created for the line that is returned next and the
+ * file never has to fit in the heap. Each line is trimmed and blank lines and
+ * comment lines (starting with '#') are skipped. A leading byte order mark is
+ * ignored and lines may end with "\n" or "\r\n".
+ *
+ * The file is mapped in windows of at most {@link #WINDOW} bytes (each
+ * starting at a line) when {@link #iterator()} is first advanced and mapped
+ * again for each {@link #iterator()}.
+ *
+ * @author Timothy Hoffman
+ */
+public final class MappedLineFile implements Iterable<String> {
+
+    /**
+     * Maximum number of bytes mapped at once.
+     */
+    static final int WINDOW = 64 * 1024 * 1024;
+
+    private final Path file;
+    private final int window;
+
+    /**
+     * @param file
+     */
+    public MappedLineFile(Path file) {
+        this(file, WINDOW);
+    }
+
+    MappedLineFile(Path file, int window) {
+        if (file == null) {
+            throw new IllegalArgumentException("Parameters cannot be null!");
+        }
+        this.file = file;
+        this.window = window;
+    }
+
+    /**
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new LineIterator();
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+
+    private final class LineIterator implements Iterator<String> {
+
+        private long size = -1;
+        //file position of the start of the mapped window
+        private long base = 0;
+        private MappedByteBuffer buf = null;
+        private String next = null;
+        private char[] chars = new char[256];
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = readLine();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String retVal = next;
+            next = null;
+            return retVal;
+        }
+
+        /**
+         * @return the next non-blank, non-comment line or {@code null} at the
+         *         end of the file
+         */
+        private String readLine() throws IOException {
+            if (size < 0) {
+                open();
+            }
+            while (buf != null) {
+                int start = buf.position();
+                int end = start;
+                int limit = buf.limit();
+                while (end < limit && buf.get(end) != '\n') {
+                    end++;
+                }
+                if (end == limit && base + limit < size) {
+                    //the line continues past the window so map again from it
+                    map(base + start, start == 0 ? limit * 2L : window);
+                    continue;
+                }
+                buf.position(end < limit ? end + 1 : end);
+                String line = decode(start, end);
+                if (end == limit) {
+                    buf = null;
+                }
+                if (line != null) {
+                    return line;
+                }
+            }
+            return null;
+        }
+
+        private void open() throws IOException {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                size = ch.size();
+            }
+            //NOTE: at least the byte order mark must fit in the first window
+            map(0, Math.max(window, 3));
+            if (buf != null && buf.limit() >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF) {
+                buf.position(3);
+            }
+        }
+
+        private void map(long position, long length) throws IOException {
+            length = Math.min(Math.min(length, size - position), Integer.MAX_VALUE);
+            if (length <= 0) {
+                buf = null;
+                return;
+            }
+            //NOTE: the mapping remains valid after the channel is closed
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, position, length);
+            }
+            base = position;
+        }
+
+        /**
+         * @return the trimmed line between the given positions of the window
+         *         or {@code null} if it is blank or a comment
+         */
+        private String decode(int start, int end) {
+            while (start < end && (buf.get(start) & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (buf.get(end - 1) & 0xFF) <= ' ') {
+                end--;
+            }
+            if (start == end || buf.get(start) == '#') {
+                return null;
+            }
+            int len = end - start;
+            if (len > chars.length) {
+                chars = new char[Math.max(len, chars.length * 2)];
+            }
+            for (int i = 0; i < len; i++) {
+                byte b = buf.get(start + i);
+                if (b < 0) {
+                    //not ASCII so fall back to a full UTF-8 decode
+                    byte[] bytes = new byte[len];
+                    for (int j = 0; j < len; j++) {
+                        bytes[j] = buf.get(start + j);
+                    }
+                    return new String(bytes, StandardCharsets.UTF_8);
+                }
+                chars[i] = (char) b;
+            }
+            return new String(chars, 0, len);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package jla.util;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * The {@link Spliterator} counterpart of {@link SequentialIterator}: returns
+ * the elements from the {@link Spliterator} of source {@code n} until it is
+ * exhausted and then those of source {@code n+1}. The {@link Spliterator} of
+ * each source is only opened when its elements are needed.
+ *
+ * Splitting first divides the remaining sources in half. Once a single source
+ * remains, splitting is delegated to its {@link Spliterator} (ex: chunks of a
+ * list). The size is estimated from the opened sources plus an estimate for
+ * each source that has not been opened yet.
+ *
+ * @author Timothy Hoffman
+ *
+ * @param <S> type of the sources
+ * @param <N> type of the elements
+ */
+public class SequentialSpliterator<S, N> implements Spliterator<N> {
+
+    private final List<? extends S> sources;
+    private final Function<? super S, ? extends Spliterator<N>> open;
+    private final ToLongFunction<? super S> estimate;
+    private final int characteristics;
+    private int next;
+    private final int end;
+    private Spliterator<N> current;
+
+    /**
+     * @param sources         the sources in order
+     * @param open            creates the {@link Spliterator} of a source
+     * @param estimate        estimates the number of elements of a source
+     *                        without opening it
+     * @param characteristics characteristics of the elements of all sources
+     *                        (see {@link Spliterator#characteristics()});
+     *                        sizes are never exact
+     */
+    public SequentialSpliterator(List<? extends S> sources, Function<? super S, ? extends Spliterator<N>> open,
+            ToLongFunction<? super S> estimate, int characteristics) {
+        this(sources, open, estimate, characteristics & ~(SIZED | SUBSIZED), 0, sources.size());
+    }
+
+    private SequentialSpliterator(List<? extends S> sources, Function<? super S, ? extends Spliterator<N>> open,
+            ToLongFunction<? super S> estimate, int characteristics, int from, int to) {
+        this.sources = sources;
+        this.open = open;
+        this.estimate = estimate;
+        this.characteristics = characteristics;
+        this.next = from;
+        this.end = to;
+        this.current = null;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super N> action) {
+        while (true) {
+            if (current != null && current.tryAdvance(action)) {
+                return true;
+            }
+            if (next >= end) {
+                current = null;
+                return false;
+            }
+            current = open.apply(sources.get(next++));
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super N> action) {
+        if (current != null) {
+            current.forEachRemaining(action);
+            current = null;
+        }
+        while (next < end) {
+            open.apply(sources.get(next++)).forEachRemaining(action);
+        }
+    }
+
+    @Override
+    public Spliterator<N> trySplit() {
+        if (current == null && end - next > 1) {
+            //split the sources that are not opened yet
+            int mid = (next + end) >>> 1;
+            Spliterator<N> prefix = new SequentialSpliterator<>(sources, open, estimate, characteristics, next, mid);
+            next = mid;
+            return prefix;
+        } else if (current != null && next < end) {
+            //hand off the opened source and keep the rest
+            Spliterator<N> prefix = current;
+            current = null;
+            return prefix;
+        } else if (current == null && next < end) {
+            current = open.apply(sources.get(next++));
+        }
+        return current == null ? null : current.trySplit();
+    }
+
+    @Override
+    public long estimateSize() {
+        long size = current == null ? 0 : current.estimateSize();
+        for (int i = next; i < end && size < Long.MAX_VALUE; i++) {
+            long n = estimate.applyAsLong(sources.get(i));
+            size = (n < 0 || size + n < 0) ? Long.MAX_VALUE : size + n;
+        }
+        return size;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
@@ -0,0 +1,403 @@
+package jla.util;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Reads the entries of a zip (or jar) file from its central directory which
+ * is memory-mapped. Unlike {@link java.util.zip.ZipInputStream}, listing the
+ * entries does not read (or inflate) the content of any entry.
+ *
+ * @author Timothy Hoffman
+ */
+public final class ZipCentralDirectory implements Closeable {
+
+    private static final int EOCD_SIG = 0x06054b50;
+    private static final int EOCD_LEN = 22;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int ZIP64_LOCATOR_LEN = 20;
+    private static final int ZIP64_EOCD_SIG = 0x06064b50;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int CEN_LEN = 46;
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int LOC_LEN = 30;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int MAX_COMMENT_LEN = 0xFFFF;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private final FileChannel channel;
+    private final ByteBuffer cen;
+    private final int count;
+
+    private ZipCentralDirectory(FileChannel channel, ByteBuffer cen, int count) {
+        this.channel = channel;
+        this.cen = cen;
+        this.count = count;
+    }
+
+    /**
+     * @param file
+     *
+     * @return a new {@link ZipCentralDirectory} for the given file
+     *
+     * @throws IOException if the file cannot be read or is not a zip file
+     */
+    public static ZipCentralDirectory open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = ch.size();
+            int tailLen = (int) Math.min(size, EOCD_LEN + MAX_COMMENT_LEN);
+            ByteBuffer tail = read(ch, size - tailLen, tailLen);
+            int eocd = tailLen - EOCD_LEN;
+            while (eocd >= 0 && tail.getInt(eocd) != EOCD_SIG) {
+                eocd--;
+            }
+            if (eocd < 0) {
+                throw new IOException("Not a zip file: " + file);
+            }
+            long cenCount = tail.getShort(eocd + 10) & 0xFFFF;
+            long cenSize = tail.getInt(eocd + 12) & ZIP64_MAGIC;
+            long cenOffset = tail.getInt(eocd + 16) & ZIP64_MAGIC;
+            if (eocd >= ZIP64_LOCATOR_LEN && tail.getInt(eocd - ZIP64_LOCATOR_LEN) == ZIP64_LOCATOR_SIG) {
+                long zip64Offset = tail.getLong(eocd - ZIP64_LOCATOR_LEN + 8);
+                ByteBuffer zip64 = read(ch, zip64Offset, 56);
+                if (zip64.getInt(0) != ZIP64_EOCD_SIG) {
+                    throw new IOException("Invalid zip64 end of central directory: " + file);
+                }
+                cenCount = zip64.getLong(32);
+                cenSize = zip64.getLong(40);
+                cenOffset = zip64.getLong(48);
+            }
+            if (cenCount > Integer.MAX_VALUE || cenSize > Integer.MAX_VALUE || cenOffset + cenSize > size) {
+                throw new IOException("Invalid central directory: " + file);
+            }
+            ByteBuffer cen = ch.map(FileChannel.MapMode.READ_ONLY, cenOffset, cenSize).order(ByteOrder.LITTLE_ENDIAN);
+            return new ZipCentralDirectory(ch, cen, (int) cenCount);
+        } catch (IOException | RuntimeException ex) {
+            ch.close();
+            throw ex;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel ch, long pos, int len) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(len).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, pos + buf.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * @return the number of entries in the central directory
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return a read-only view of the raw bytes of the central directory
+     */
+    public ByteBuffer rawBytes() {
+        return cen.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a new {@link Cursor} positioned before the first entry
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Iterates the entries of the central directory without creating an
+     * object per entry. Each accessor refers to the current entry, i.e. the
+     * one that the last call to {@link #next()} moved to.
+     */
+    public final class Cursor {
+
+        private int index = -1;
+        private int pos = 0;
+        private int nameLen = 0;
+        private int extraLen = 0;
+        private int commentLen = 0;
+
+        private Cursor() {
+        }
+
+        /**
+         * @return {@code true} iff the cursor moved to another entry
+         *
+         * @throws IOException if the central directory is malformed
+         */
+        public boolean next() throws IOException {
+            if (index >= 0) {
+                pos += CEN_LEN + nameLen + extraLen + commentLen;
+            }
+            if (++index >= count) {
+                return false;
+            }
+            if (pos + CEN_LEN > cen.limit() || cen.getInt(pos) != CEN_SIG) {
+                throw new IOException("Invalid central directory header at entry " + index);
+            }
+            nameLen = cen.getShort(pos + 28) & 0xFFFF;
+            extraLen = cen.getShort(pos + 30) & 0xFFFF;
+            commentLen = cen.getShort(pos + 32) & 0xFFFF;
+            if (pos + CEN_LEN + nameLen + extraLen + commentLen > cen.limit()) {
+                throw new IOException("Invalid central directory header at entry " + index);
+            }
+            return true;
+        }
+
+        /**
+         * @return number of bytes in the (UTF-8) name of the current entry
+         */
+        public int nameLength() {
+            return nameLen;
+        }
+
+        /**
+         * @param i
+         *
+         * @return byte {@code i} of the (UTF-8) name of the current entry
+         */
+        public byte nameByte(int i) {
+            return cen.get(pos + CEN_LEN + i);
+        }
+
+        /**
+         * @param suffix ASCII suffix
+         *
+         * @return {@code true} iff the name of the current entry ends with the
+         *         given suffix
+         */
+        public boolean nameEndsWith(String suffix) {
+            int len = suffix.length();
+            if (len > nameLen) {
+                return false;
+            }
+            int start = pos + CEN_LEN + nameLen - len;
+            for (int i = 0; i < len; i++) {
+                if (cen.get(start + i) != suffix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the name of the current entry
+         */
+        public String name() {
+            return name(nameLen, '/');
+        }
+
+        /**
+         * @param length       number of name bytes to decode
+         * @param separatorFor character that replaces each '/'
+         *
+         * @return the first {@code length} bytes of the name of the current
+         *         entry with '/' replaced by the given character
+         */
+        public String name(int length, char separatorFor) {
+            char[] chars = new char[length];
+            int start = pos + CEN_LEN;
+            for (int i = 0; i < length; i++) {
+                byte b = cen.get(start + i);
+                if (b < 0) {
+                    //not ASCII so fall back to a full UTF-8 decode
+                    byte[] bytes = new byte[length];
+                    for (int j = 0; j < length; j++) {
+                        bytes[j] = cen.get(start + j);
+                    }
+                    return new String(bytes, StandardCharsets.UTF_8).replace('/', separatorFor);
+                }
+                chars[i] = b == '/' ? separatorFor : (char) b;
+            }
+            return new String(chars);
+        }
+
+        /**
+         * @return {@code true} iff the current entry is a directory
+         */
+        public boolean isDirectory() {
+            return nameLen > 0 && nameByte(nameLen - 1) == '/';
+        }
+
+        /**
+         * @return the compression method of the current entry
+         */
+        public int method() {
+            return cen.getShort(pos + 10) & 0xFFFF;
+        }
+
+        /**
+         * @return size of the content of the current entry when compressed
+         */
+        public long compressedSize() {
+            return zip64Value(cen.getInt(pos + 20) & ZIP64_MAGIC, 1);
+        }
+
+        /**
+         * @return size of the content of the current entry
+         */
+        public long size() {
+            return zip64Value(cen.getInt(pos + 24) & ZIP64_MAGIC, 0);
+        }
+
+        private long localHeaderOffset() {
+            return zip64Value(cen.getInt(pos + 42) & ZIP64_MAGIC, 2);
+        }
+
+        /**
+         * Values that do not fit in 32 bits are stored in the zip64 extra
+         * field in the order: size, compressed size, local header offset.
+         */
+        private long zip64Value(long value, int slot) {
+            if (value != ZIP64_MAGIC) {
+                return value;
+            }
+            int extra = pos + CEN_LEN + nameLen;
+            int end = extra + extraLen;
+            while (extra + 4 <= end) {
+                int id = cen.getShort(extra) & 0xFFFF;
+                int len = cen.getShort(extra + 2) & 0xFFFF;
+                if (id == ZIP64_EXTRA_ID) {
+                    //only the values that overflowed are present
+                    int off = extra + 4;
+                    if (slot > 0 && (cen.getInt(pos + 24) & ZIP64_MAGIC) == ZIP64_MAGIC) {
+                        off += 8;
+                    }
+                    if (slot > 1 && (cen.getInt(pos + 20) & ZIP64_MAGIC) == ZIP64_MAGIC) {
+                        off += 8;
+                    }
+                    if (off + 8 <= extra + 4 + len) {
+                        return cen.getLong(off);
+                    }
+                    break;
+                }
+                extra += 4 + len;
+            }
+            return value;
+        }
+
+        /**
+         * Opens the content of the current entry. Only the bytes that are
+         * actually read from the stream are read (and inflated) from the file.
+         *
+         * @return a new {@link InputStream} over the content of the current
+         *         entry
+         *
+         * @throws IOException if the entry is malformed or uses an unsupported
+         *                     compression method
+         */
+        public InputStream openStream() throws IOException {
+            long local = localHeaderOffset();
+            ByteBuffer header = read(channel, local, LOC_LEN);
+            if (header.getInt(0) != LOC_SIG) {
+                throw new IOException("Invalid local header for entry " + name());
+            }
+            long data = local + LOC_LEN + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+            InputStream raw = new RegionInputStream(channel, data, compressedSize());
+            switch (method()) {
+                case ZipEntry.STORED:
+                    return raw;
+                case ZipEntry.DEFLATED:
+                    Inflater inflater = new Inflater(true);
+                    return new InflaterInputStream(raw, inflater, 512) {
+                        @Override
+                        public void close() throws IOException {
+                            super.close();
+                            inflater.end();
+                        }
+                    };
+                default:
+                    throw new IOException("Unsupported compression method " + method() + " for entry " + name());
+            }
+        }
+    }
+
+    /**
+     * {@link InputStream} over a region of a {@link FileChannel} using
+     * positional reads so multiple streams can be open at once.
+     */
+    private static final class RegionInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long pos;
+        private final long end;
+
+        RegionInputStream(FileChannel channel, long start, long length) {
+            this.channel = channel;
+            this.pos = start;
+            this.end = start + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : (b[0] & 0xFF);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (pos >= end) {
+                return -1;
+            }
+            len = (int) Math.min(len, end - pos);
+            int n = channel.read(ByteBuffer.wrap(b, off, len), pos);
+            if (n > 0) {
+                pos += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, end - pos));
+            pos += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package jla.analyzer;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.io.*;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import jla.filter.BasicFilters;
+import jla.resolve.ClassLocator;
+import jla.util.ZipCentralDirectory;
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class ClassHolderFactoryTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testRuntimeImage() {
+        //the runtime image only exists on Java 9+
+        Assume.assumeTrue(ClassHolderFactory.Path.BOOT.isEmpty());
+        Set<String> names = new HashSet<>();
+        for (String className : ClassHolderFactory.classesFromBootPath(BasicFilters.all())) {
+            assertTrue(className, names.add(className));
+        }
+        assertTrue(names.contains("java.lang.Object"));
+        assertTrue(names.contains("java.util.AbstractList$Itr"));
+        assertFalse(names.contains("module-info"));
+    }
+
+    @Test
+    public void testReadClassNamesVisibleOnly() throws IOException {
+        //a public class, a package-private class, a private nested class, and
+        //  a class file that cannot be read (kept for the resolver to report)
+        String[] files = {"jla/analyzer/ClassHolderFactory.class", "jla/analyzer/ClassHolderFactory$PathClassHolder.class",
+            "jla/analyzer/DirectoryClassIterator.class"};
+        File jar = tmp.newFile("classes.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String name : files) {
+                zip.putNextEntry(new ZipEntry(name));
+                try (InputStream in = ClassHolderFactory.class.getResourceAsStream('/' + name)) {
+                    zip.write(ClassLocator.readAll(in, 4096));
+                }
+            }
+            zip.putNextEntry(new ZipEntry("Bad.class"));
+            zip.write(new byte[]{1, 2, 3});
+        }
+
+        try (ZipCentralDirectory zip = ZipCentralDirectory.open(jar.toPath())) {
+            List<String> names = new ArrayList<>(ClassHolderFactory.readClassNames(zip, null, true));
+            Collections.sort(names);
+            assertEquals(Arrays.asList("Bad", "jla.analyzer.ClassHolderFactory"), names);
+            assertEquals(4, ClassHolderFactory.readClassNames(zip, null, false).size());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package jla.analyzer;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class ClassNameIndexTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testCachedAndStale() throws IOException {
+        File indexDir = tmp.newFolder("index");
+        ClassNameIndex index = new ClassNameIndex(indexDir.getPath(), ClassNameIndex.DEFAULT_MAX_BYTES);
+        File jar = tmp.newFile("a.jar");
+
+        writeJar(jar, "p/A.class", "p/B.class", "p/q/", "p/q/C.class", "META-INF/MANIFEST.MF");
+        List<String> expected = Arrays.asList("p.A", "p.B", "p.q.C");
+        assertEquals(expected, index.classesIn(jar));
+        assertEquals(1, indexDir.list().length);
+        assertEquals(expected, index.classesIn(jar));
+
+        //same content but a new modification time
+        Files.setLastModifiedTime(jar.toPath(), FileTime.fromMillis(jar.lastModified() + 10000));
+        assertEquals(expected, index.classesIn(jar));
+
+        //different content
+        writeJar(jar, "p/A.class", "r/D.class");
+        Files.setLastModifiedTime(jar.toPath(), FileTime.fromMillis(jar.lastModified() + 20000));
+        assertEquals(Arrays.asList("p.A", "r.D"), index.classesIn(jar));
+        assertEquals(1, indexDir.list().length);
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        File indexDir = tmp.newFolder("index");
+        ClassNameIndex index = new ClassNameIndex(indexDir.getPath(), 1);
+        File jar1 = tmp.newFile("1.jar");
+        File jar2 = tmp.newFile("2.jar");
+        writeJar(jar1, "p/A.class");
+        writeJar(jar2, "p/B.class");
+        assertEquals(Arrays.asList("p.A"), index.classesIn(jar1));
+        assertEquals(Arrays.asList("p.B"), index.classesIn(jar2));
+        assertTrue(indexDir.list().length <= 1);
+    }
+
+    @Test
+    public void testCorruptIndex() throws IOException {
+        File indexDir = tmp.newFolder("index");
+        ClassNameIndex index = new ClassNameIndex(indexDir.getPath(), ClassNameIndex.DEFAULT_MAX_BYTES);
+        File jar = tmp.newFile("a.jar");
+        writeJar(jar, "p/A.class");
+        index.classesIn(jar);
+        for (File f : indexDir.listFiles()) {
+            Files.write(f.toPath(), new byte[]{1, 2, 3});
+        }
+        assertEquals(Arrays.asList("p.A"), index.classesIn(jar));
+    }
+
+    @Test
+    public void testSupplementaryCharacters() throws IOException {
+        File indexDir = tmp.newFolder("index");
+        ClassNameIndex index = new ClassNameIndex(indexDir.getPath(), ClassNameIndex.DEFAULT_MAX_BYTES);
+        File jar = tmp.newFile("a.jar");
+        //names that differ only in the low surrogate of the last char
+        writeJar(jar, "p/\uD835\uDC00.class", "p/\uD835\uDC01.class");
+        List<String> expected = Arrays.asList("p.\uD835\uDC00", "p.\uD835\uDC01");
+        assertEquals(expected, index.classesIn(jar));
+        assertEquals(expected, index.classesIn(jar));
+    }
+
+    private static void writeJar(File jar, String... entries) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String e : entries) {
+                out.putNextEntry(new ZipEntry(e));
+                if (!e.endsWith("/")) {
+                    out.write(e.getBytes("UTF-8"));
+                }
+            }
+        }
+    }
+}
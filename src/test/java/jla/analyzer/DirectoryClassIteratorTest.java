@@ -0,0 +1,118 @@
+package jla.analyzer;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import jla.filter.BasicFilters;
+import jla.filter.IFilter;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class DirectoryClassIteratorTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testOrderAndFilter() throws IOException {
+        File root = tmp.newFolder("classes");
+        touch(root, "Top.class", "p/B.class", "p/A.class", "p/q/C.class", "p/README.txt", "r/s/t/D.class", "META-INF/MANIFEST.MF");
+        assertEquals(Arrays.asList("Top", "p.A", "p.B", "p.q.C", "r.s.t.D"),
+                toList(new DirectoryClassIterator(root.toPath(), BasicFilters.all())));
+        assertEquals(Arrays.asList("p.A", "p.B", "p.q.C"),
+                toList(new DirectoryClassIterator(root.toPath(), new IFilter<String>() {
+                    @Override
+                    public boolean accept(String className) {
+                        return className.startsWith("p.");
+                    }
+
+                    @Override
+                    public String name() {
+                        return "p";
+                    }
+                })));
+    }
+
+    @Test
+    public void testMorePackagesThanPrefetch() throws IOException {
+        File root = tmp.newFolder("classes");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < DirectoryClassIterator.MAX_PREFETCH / 2; j++) {
+                String pkg = String.format("p%d/q%04d", i, j);
+                touch(root, pkg + "/X.class");
+                expected.add(pkg.replace('/', '.') + ".X");
+            }
+        }
+        assertEquals(expected, toList(new DirectoryClassIterator(root.toPath(), BasicFilters.all())));
+    }
+
+    @Test
+    public void testVisibleOnly() throws IOException {
+        //a public class, a package-private class, a private nested class, and
+        //  a class file that cannot be read (kept for the resolver to report)
+        String[] files = {"jla/analyzer/ClassHolderFactory.class", "jla/analyzer/ClassHolderFactory$PathClassHolder.class",
+            "jla/analyzer/DirectoryClassIterator.class"};
+        File root = tmp.newFolder("classes");
+        for (String name : files) {
+            File f = new File(root, name);
+            f.getParentFile().mkdirs();
+            try (InputStream in = ClassHolderFactory.class.getResourceAsStream('/' + name)) {
+                Files.copy(in, f.toPath());
+            }
+        }
+        touch(root, "Bad.class");
+
+        List<String> expected = Arrays.asList("Bad", "jla.analyzer.ClassHolderFactory");
+        assertEquals(expected, toList(new DirectoryClassIterator(root.toPath(), BasicFilters.all(), true)));
+        assertEquals(4, toList(new DirectoryClassIterator(root.toPath(), BasicFilters.all(), false)).size());
+    }
+
+    private static void touch(File root, String... files) throws IOException {
+        for (String name : files) {
+            File f = new File(root, name);
+            f.getParentFile().mkdirs();
+            f.createNewFile();
+        }
+    }
+
+    private static List<String> toList(Iterator<String> it) {
+        List<String> retVal = new ArrayList<>();
+        while (it.hasNext()) {
+            retVal.add(it.next());
+        }
+        return retVal;
+    }
+}
@@ -0,0 +1,225 @@
+package jla.filter;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import soot.ClassMember;
+import soot.IntType;
+import soot.Modifier;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.VoidType;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class MemberFilterExpressionTest {
+
+    private static final List<ClassMember> MEMBERS = new ArrayList<>();
+
+    @BeforeClass
+    public static void createMembers() {
+        final int[] bits = {Modifier.PUBLIC, Modifier.PROTECTED, Modifier.PRIVATE, Modifier.STATIC,
+            Modifier.FINAL, Modifier.ABSTRACT, Modifier.NATIVE, Modifier.SYNTHETIC, Modifier.VOLATILE};
+        final String[] methodNames = {"getX", "setX", "run", SootMethod.constructorName, SootMethod.staticInitializerName};
+        Random r = new Random(7);
+        int count = 0;
+        for (String className : new String[]{"a.Foo", "a.FooImpl", "Bar"}) {
+            for (int classMods : new int[]{0, Modifier.PUBLIC, Modifier.PROTECTED | Modifier.FINAL}) {
+                SootClass c = new SootClass(className + count++, classMods);
+                for (int i = 0; i < 40; i++) {
+                    int mods = 0;
+                    for (int b : bits) {
+                        if (r.nextInt(3) == 0) {
+                            mods |= b;
+                        }
+                    }
+                    if (i % 4 == 0) {
+                        SootField f = new SootField("getF" + i, IntType.v(), mods);
+                        c.addField(f);
+                        MEMBERS.add(f);
+                    } else {
+                        String name = methodNames[r.nextInt(methodNames.length)];
+                        SootMethod m = new SootMethod(name, Collections.singletonList(IntType.v()), VoidType.v(), mods);
+                        if (!c.declaresMethod(m.getSubSignature())) {
+                            c.addMethod(m);
+                            MEMBERS.add(m);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testClassMemberFilters() {
+        for (ClassMemberFilters f : ClassMemberFilters.values()) {
+            IFilter<ClassMember> compiled = MemberFilterExpression.compile(f.name().toLowerCase());
+            assertEquals(f.name(), compiled.name());
+            for (ClassMember m : MEMBERS) {
+                assertEquals(f + " " + m, f.accept(m), compiled.accept(m));
+            }
+        }
+    }
+
+    @Test
+    public void testRandomExpressions() {
+        Random r = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            Predicate<ClassMember> expected = random(r, 3, text);
+            IFilter<ClassMember> compiled = MemberFilterExpression.compile(text.toString());
+            for (ClassMember m : MEMBERS) {
+                assertEquals(text + " " + m, expected.test(m), compiled.accept(m));
+            }
+        }
+    }
+
+    @Test
+    public void testName() {
+        assertEquals("VISIBLE-AND-METHOD-AND-NOT-SYNTHETIC-AND-NAME-get",
+                MemberFilterExpression.compile("visible && method && !synthetic && name~\"get\"").name());
+        assertEquals("_PUBLIC-OR-PROTECTED_-AND-METHOD",
+                MemberFilterExpression.compile("(public || protected) && method").name());
+        //the '^' is not file name safe so a hash is appended
+        String name = MemberFilterExpression.compile("visible && method && !synthetic && name~\"^get\"").name();
+        assertTrue(name, name.matches("VISIBLE-AND-METHOD-AND-NOT-SYNTHETIC-AND-NAME-_get-[0-9a-f]{8}"));
+    }
+
+    @Test
+    public void testNameCollisions() {
+        String[][] pairs = {
+            {"(public || protected) && method", "public || (protected && method)"},
+            {"name~\"^get\"", "name~\"_get\""},
+            {"name~\"a b\"", "name~\"a_b\""},
+            {"name~\"a\" || static", "name~\"a-OR-STATIC\""},};
+        for (String[] pair : pairs) {
+            String a = MemberFilterExpression.compile(pair[0]).name();
+            String b = MemberFilterExpression.compile(pair[1]).name();
+            assertNotEquals(a + " for " + pair[0] + " and " + pair[1], a, b);
+        }
+        //the same expression always has the same name
+        assertEquals(MemberFilterExpression.compile("name~\"^get\"").name(),
+                MemberFilterExpression.compile(" name~\"^get\" ").name());
+    }
+
+    @Test
+    public void testErrors() {
+        for (String bad : new String[]{"", "visible &&", "(method", "method)", "bogus", "name", "name~get",
+            "name~\"(\"", "name~\"abc", "method & field"}) {
+            try {
+                MemberFilterExpression.compile(bad);
+                fail(bad);
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("Invalid member filter expression"));
+            }
+        }
+    }
+
+    private static Predicate<ClassMember> random(Random r, int depth, StringBuilder text) {
+        switch (depth == 0 ? 0 : r.nextInt(4)) {
+            case 1: {
+                text.append('!');
+                return random(r, depth - 1, text).negate();
+            }
+            case 2:
+            case 3: {
+                boolean and = r.nextBoolean();
+                text.append('(');
+                Predicate<ClassMember> ret = random(r, depth - 1, text);
+                for (int n = 1 + r.nextInt(3); n > 0; n--) {
+                    text.append(and ? " && " : " || ");
+                    Predicate<ClassMember> next = random(r, depth - 1, text);
+                    ret = and ? ret.and(next) : ret.or(next);
+                }
+                text.append(')');
+                return ret;
+            }
+            default:
+                return atom(r, text);
+        }
+    }
+
+    private static Predicate<ClassMember> atom(Random r, StringBuilder text) {
+        String[] names = {"all", "none", "field", "method", "init", "clinit", "executable", "native", "visible",
+            "public", "protected", "private", "package", "static", "final", "abstract", "synthetic", "name", "class"};
+        String name = names[r.nextInt(names.length)];
+        text.append(r.nextBoolean() ? name : name.toUpperCase());
+        switch (name) {
+            case "all":
+                return m -> true;
+            case "none":
+                return m -> false;
+            case "field":
+                return ClassMemberFilters.FIELD::accept;
+            case "method":
+                return ClassMemberFilters.METHOD::accept;
+            case "init":
+                return ClassMemberFilters.INIT::accept;
+            case "clinit":
+                return ClassMemberFilters.CLINIT::accept;
+            case "executable":
+                return ClassMemberFilters.EXECUTABLE::accept;
+            case "native":
+                return ClassMemberFilters.NATIVE::accept;
+            case "visible":
+                return ClassMemberFilters.VISIBLE::accept;
+            case "public":
+                return m -> Modifier.isPublic(m.getModifiers());
+            case "protected":
+                return m -> Modifier.isProtected(m.getModifiers());
+            case "private":
+                return m -> Modifier.isPrivate(m.getModifiers());
+            case "package":
+                return m -> !Modifier.isPublic(m.getModifiers()) && !Modifier.isProtected(m.getModifiers())
+                        && !Modifier.isPrivate(m.getModifiers());
+            case "static":
+                return m -> Modifier.isStatic(m.getModifiers());
+            case "final":
+                return m -> Modifier.isFinal(m.getModifiers());
+            case "abstract":
+                return m -> Modifier.isAbstract(m.getModifiers());
+            case "synthetic":
+                return m -> Modifier.isSynthetic(m.getModifiers());
+            case "name":
+                text.append("~\"^get\"");
+                return m -> (m instanceof SootMethod ? ((SootMethod) m).getName() : ((SootField) m).getName()).startsWith("get");
+            default:
+                text.append(" ~ \"Impl\\\\d\"");
+                return m -> m.getDeclaringClass().getName().matches(".*Impl\\d.*");
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package jla.filter;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class PrefixTrieFilterTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testLongestMatch() {
+        PrefixTrieFilter f = new PrefixTrieFilter("T", Arrays.asList(
+                "# vendor code",
+                "com.acme.**",
+                "",
+                "-com.acme.internal.",
+                "+com.acme.internal.api.*",
+                "-com.acme.internal.api.Hidden",
+                "  - com.acme.Shaded*  "));
+        assertTrue(f.accept("com.acme.Foo"));
+        assertTrue(f.accept("com.acme.a.b.Foo"));
+        assertFalse(f.accept("com.acme.internal.Foo"));
+        assertFalse(f.accept("com.acme.internal.api.sub.Foo"));
+        assertTrue(f.accept("com.acme.internal.api.Foo"));
+        assertFalse(f.accept("com.acme.internal.api.Hidden"));
+        assertTrue(f.accept("com.acme.internal.api.Hidden2"));
+        assertFalse(f.accept("com.acme.ShadedGuava"));
+        assertTrue(f.accept("com.acme.shaded.Guava"));
+        //no rule matches and there are include rules
+        assertFalse(f.accept("com.acm"));
+        assertFalse(f.accept("org.Foo"));
+        assertEquals("T", f.name());
+    }
+
+    @Test
+    public void testExcludeOnly() {
+        PrefixTrieFilter f = new PrefixTrieFilter("T", Arrays.asList("-sun.", "-Default*"));
+        assertTrue(f.accept("java.lang.Object"));
+        assertFalse(f.accept("sun.misc.Unsafe"));
+        assertFalse(f.accept("DefaultThing"));
+        assertTrue(f.accept("a.DefaultThing"));
+    }
+
+    @Test
+    public void testJDK() throws IOException {
+        File rules = tmp.newFile("jdk-names.txt");
+        Files.write(rules.toPath(), Arrays.asList("java.", "javax.", "org.ietf.jgss.", "org.omg.", "org.w3c.dom.", "org.xml.sax."),
+                StandardCharsets.UTF_8);
+        PrefixTrieFilter f = PrefixTrieFilter.fromFile(rules.getPath());
+        assertEquals("jdk-names", f.name());
+        for (String name : new String[]{"java.lang.Object", "javax.swing.JFrame", "org.omg.CORBA.ORB", "org.w3c.dom.Node",
+            "org.w3c.Foo", "org.xml.sax.Parser", "sun.misc.Unsafe", "jdk.Foo", "java", "javax", "Foo", ""}) {
+            assertEquals(name, NameFilters.JDK.accept(name), f.accept(name));
+        }
+    }
+
+    @Test
+    public void testRandomRules() {
+        final String[] parts = {"a", "b", "ab", "."};
+        Random r = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            List<String> rules = new ArrayList<>();
+            for (int n = r.nextInt(12); n >= 0; n--) {
+                String suffix = new String[]{"", "*", "**"}[r.nextInt(3)];
+                String text = random(r, parts, 4);
+                if (suffix.isEmpty() && text.isEmpty()) {
+                    continue;
+                }
+                rules.add((r.nextBoolean() ? "+" : "-") + text + suffix);
+            }
+            PrefixTrieFilter f = new PrefixTrieFilter("T", rules);
+            for (int i = 0; i < 200; i++) {
+                String name = random(r, parts, 6);
+                assertEquals(rules + " " + name, expected(rules, name), f.accept(name));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInnerWildcard() {
+        new PrefixTrieFilter("T", Arrays.asList("com.*.Foo"));
+    }
+
+    private static String random(Random r, String[] parts, int max) {
+        StringBuilder sb = new StringBuilder();
+        for (int n = r.nextInt(max + 1); n > 0; n--) {
+            sb.append(parts[r.nextInt(parts.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Straightforward implementation of the longest match semantics.
+     */
+    private static boolean expected(List<String> rules, String name) {
+        int bestLength = -1;
+        int bestRank = -1;
+        boolean include = true;
+        boolean anyInclude = false;
+        for (String rule : rules) {
+            boolean inc = rule.charAt(0) == '+';
+            anyInclude |= inc;
+            String p = rule.substring(1);
+            int rank;
+            boolean match;
+            if (p.endsWith("**")) {
+                p = p.substring(0, p.length() - 2);
+                rank = 0;
+                match = name.startsWith(p);
+            } else if (p.endsWith("*")) {
+                p = p.substring(0, p.length() - 1);
+                rank = 1;
+                match = name.startsWith(p) && name.indexOf('.', p.length()) < 0;
+            } else if (p.endsWith(".")) {
+                rank = 0;
+                match = name.startsWith(p);
+            } else {
+                rank = 2;
+                match = name.equals(p);
+            }
+            if (match && (p.length() > bestLength || (p.length() == bestLength && rank >= bestRank))) {
+                bestLength = p.length();
+                bestRank = rank;
+                include = inc;
+            }
+        }
+        return bestLength < 0 ? !anyInclude : include;
+    }
+}
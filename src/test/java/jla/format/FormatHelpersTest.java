@@ -0,0 +1,66 @@
+package jla.format;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import jla.format.FormatHelpers.Soot;
+import jla.resolve.SootSceneResolver;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import soot.*;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class FormatHelpersTest {
+
+    @Test
+    public void testAppendModifiers() {
+        StringBuilder b = new StringBuilder();
+        //all combinations of the modifiers printed by Modifier.toString(int)
+        for (int mods = 0; mods < 0x8000; mods++) {
+            b.setLength(0);
+            b.append('x');
+            Soot.appendModifiers(mods, b);
+            assertEquals(Integer.toHexString(mods), "x" + Modifier.toString(mods), b.toString());
+        }
+    }
+
+    @Test
+    public void testAppendTypeName() {
+        SootSceneResolver.scene();
+        Type[] types = {
+            IntType.v(), VoidType.v(), RefType.v("java.lang.String"),
+            ArrayType.v(IntType.v(), 1), ArrayType.v(RefType.v("java.util.Map$Entry"), 3)
+        };
+        for (Type t : types) {
+            StringBuilder b = new StringBuilder();
+            Soot.appendTypeName(t, b);
+            assertEquals(Soot.getTypeName(t), b.toString());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.lang.management.ManagementFactory;
+import javax.management.JMX;
+import javax.management.ObjectName;
+import jla.analyzer.ClassHolderFactory;
+import jla.analyzer.IClassHolder;
+import jla.filter.ClassMemberFilters;
+import jla.format.IClassFormatter;
+import jla.format.impl.CSVDetailFormatter;
+import jla.print.StringPrinter;
+import jla.resolve.ClassFileResolver;
+import jla.resolve.SootSceneResolver;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class AnalysisMetricsTest {
+
+    private static final String[] CLASSES = {"java.util.TreeMap", "not.a.RealClass", "java.lang.Thread", "java.nio.ByteBuffer"};
+
+    private AnalysisMetricsMXBean metrics;
+
+    @Before
+    public void setUp() throws Exception {
+        //NOTE: Soot keeps an empty class after a failed lookup so only the
+        //  first attempt to resolve a missing class fails
+        Analyzer.setResolver(ClassFileResolver.INST);
+        //read the counters the same way as a JMX client
+        metrics = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                new ObjectName(Analyzer.METRICS_NAME), AnalysisMetricsMXBean.class);
+    }
+
+    @After
+    public void tearDown() {
+        Analyzer.setPipeline(null);
+        Analyzer.setResolver(SootSceneResolver.INST);
+    }
+
+    @Test
+    public void testCounters() {
+        IClassHolder classes = ClassHolderFactory.classNames(CLASSES);
+        IClassFormatter formatter = new CSVDetailFormatter(ClassMemberFilters.VISIBLE);
+        for (Pipeline pipeline : new Pipeline[]{null, new Pipeline(3, 2)}) {
+            Analyzer.setPipeline(pipeline);
+            metrics.reset();
+            StringPrinter out = new StringPrinter();
+            Analyzer.print(classes, formatter, out);
+            String content = out.toString().substring(formatter.header().length());
+            assertEquals(4, metrics.getClassesEnumerated());
+            assertEquals(3, metrics.getClassesResolved());
+            assertEquals(1, metrics.getClassesFailed());
+            assertEquals(3, metrics.getClassesPrinted());
+            //one line per member
+            assertEquals(content.split("\n").length, metrics.getMembersEmitted());
+            assertEquals(content.length(), metrics.getBytesWritten());
+            assertEquals(0, metrics.getNameQueueDepth());
+            assertEquals(0, metrics.getOutputQueueDepth());
+            assertEquals("java.nio.ByteBuffer", metrics.getCurrentClass());
+            assertEquals(0, metrics.getCurrentClassMillis());
+            assertTrue(metrics.getClassesPerSecond() > 0);
+        }
+    }
+
+    @Test
+    public void testReset() {
+        Analyzer.print(ClassHolderFactory.classNames(CLASSES), new CSVDetailFormatter(ClassMemberFilters.VISIBLE), new StringPrinter());
+        assertTrue(metrics.getClassesEnumerated() > 0);
+        metrics.reset();
+        assertEquals(0, metrics.getClassesEnumerated());
+        assertEquals(0, metrics.getClassesResolved());
+        assertEquals(0, metrics.getClassesFailed());
+        assertEquals(0, metrics.getClassesPrinted());
+        assertEquals(0, metrics.getMembersEmitted());
+        assertEquals(0, metrics.getBytesWritten());
+        assertEquals(0, metrics.getSceneRebuilds());
+    }
+
+    @Test
+    public void testSceneClasses() {
+        assertEquals(0, metrics.getSceneClasses());
+        Analyzer.setResolver(SootSceneResolver.INST);
+        Analyzer.print(ClassHolderFactory.classNames(new String[]{"java.lang.Object"}), new CSVDetailFormatter(ClassMemberFilters.VISIBLE), new StringPrinter());
+        assertTrue(metrics.getSceneClasses() > 0);
+    }
+}
@@ -0,0 +1,112 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import jla.analyzer.ClassHolderFactory;
+import jla.analyzer.IClassHolder;
+import jla.filter.ClassMemberFilters;
+import jla.format.impl.CSVDetailFormatter;
+import jla.main.Instrumentation.Phase;
+import jla.print.StringPrinter;
+import jla.resolve.ClassFileResolver;
+import jla.resolve.SootSceneResolver;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class InstrumentationTest {
+
+    private static final String[] CLASSES = {"java.util.TreeMap", "not.a.RealClass", "java.lang.Thread", "java.nio.ByteBuffer"};
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        //NOTE: Soot keeps an empty class after a failed lookup so only the
+        //  first attempt to resolve a missing class fails
+        Analyzer.setResolver(ClassFileResolver.INST);
+    }
+
+    @After
+    public void tearDown() {
+        Analyzer.setInstrumentation(null);
+        Analyzer.setPipeline(null);
+        Analyzer.setResolver(SootSceneResolver.INST);
+    }
+
+    @Test
+    public void testCounts() {
+        IClassHolder classes = ClassHolderFactory.classNames(CLASSES);
+        for (Pipeline pipeline : new Pipeline[]{null, new Pipeline(3, 2)}) {
+            Analyzer.setPipeline(pipeline);
+            Instrumentation inst = new Instrumentation(2);
+            Analyzer.setInstrumentation(inst);
+            Analyzer.print(classes, new CSVDetailFormatter(ClassMemberFilters.VISIBLE), new StringPrinter());
+            assertEquals(4, inst.count(Phase.ENUMERATE));
+            assertEquals(3, inst.count(Phase.RESOLVE));
+            assertEquals(1, inst.failed());
+            assertEquals(3, inst.count(Phase.FORMAT));
+            assertEquals(3, inst.count(Phase.PRINT));
+        }
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        Instrumentation inst = new Instrumentation(2);
+        Analyzer.setInstrumentation(inst);
+        Analyzer.print(ClassHolderFactory.classNames(CLASSES), new CSVDetailFormatter(ClassMemberFilters.VISIBLE), new StringPrinter());
+        File report = new File(tmp.getRoot(), "report.json");
+        inst.writeReport(report.getPath());
+        String json = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json, json.contains("\"classes\": {\"enumerated\": 4, \"resolved\": 3, \"failed\": 1, \"formatted\": 3, \"printed\": 3}"));
+        for (Phase phase : Phase.values()) {
+            assertTrue(json, json.contains("\"" + phase.name().toLowerCase() + "\": {\"count\": "));
+        }
+        //only the 2 slowest classes are kept
+        int resolve = json.indexOf("\"resolve\"");
+        String slowest = json.substring(json.indexOf("\"slowest\"", resolve), json.indexOf("]}", resolve));
+        assertEquals(2, slowest.split("\"class\"").length - 1);
+        assertFalse(slowest.contains("not.a.RealClass"));
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        Analyzer.print(ClassHolderFactory.classNames(CLASSES), new CSVDetailFormatter(ClassMemberFilters.VISIBLE), new StringPrinter());
+        assertNull(Analyzer.instrumentation());
+    }
+}
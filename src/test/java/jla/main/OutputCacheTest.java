@@ -0,0 +1,194 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import jla.analyzer.ClassHolderFactory;
+import jla.analyzer.IClassHolder;
+import jla.filter.ClassMemberFilters;
+import jla.format.IClassFormatter;
+import jla.format.impl.CSVDetailFormatter;
+import jla.format.impl.PscoutFormatter;
+import jla.print.IPrinter;
+import jla.print.StringPrinter;
+import jla.resolve.IClassResolver;
+import jla.resolve.SootSceneResolver;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import soot.SootClass;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class OutputCacheTest {
+
+    private static final String[] CLASSES = {
+        "java.nio.ByteBuffer", "not.a.RealClass", "java.lang.Object", "java.util.AbstractList$Itr", "java.nio.IntBuffer"
+    };
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final AtomicInteger resolved = new AtomicInteger();
+    private volatile boolean unavailable;
+
+    @After
+    public void tearDown() {
+        Analyzer.setCache(null);
+        Analyzer.setPipeline(null);
+        Analyzer.setResolver(SootSceneResolver.INST);
+    }
+
+    @Test
+    public void testCachedOutput() throws Exception {
+        IClassHolder classes = ClassHolderFactory.classNames(CLASSES);
+        IClassFormatter formatter = new CSVDetailFormatter(ClassMemberFilters.VISIBLE);
+        Analyzer.setResolver(countingResolver());
+        String expected = printToString(classes, formatter);
+        assertEquals(CLASSES.length, resolved.getAndSet(0));
+
+        Analyzer.setCache(new OutputCache(tmp.newFolder().getPath(), OutputCache.DEFAULT_MAX_BYTES));
+        assertEquals(expected, printToString(classes, formatter));
+        assertEquals(CLASSES.length, resolved.getAndSet(0));
+
+        //only the class that cannot be found is resolved again
+        assertEquals(expected, printToString(classes, formatter));
+        assertEquals(1, resolved.getAndSet(0));
+
+        Analyzer.setPipeline(new Pipeline(2, 2));
+        assertEquals(expected, printToString(classes, formatter));
+        assertEquals(1, resolved.getAndSet(0));
+    }
+
+    @Test
+    public void testFormatterIdentity() throws Exception {
+        IClassHolder classes = ClassHolderFactory.classNames(CLASSES);
+        Analyzer.setResolver(countingResolver());
+        Analyzer.setCache(new OutputCache(tmp.newFolder().getPath(), OutputCache.DEFAULT_MAX_BYTES));
+
+        String csv = printToString(classes, new CSVDetailFormatter(ClassMemberFilters.VISIBLE));
+        resolved.set(0);
+        String pscout = printToString(classes, new PscoutFormatter(ClassMemberFilters.VISIBLE));
+        assertEquals(CLASSES.length, resolved.getAndSet(0));
+        assertNotEquals(csv, pscout);
+
+        String all = printToString(classes, new CSVDetailFormatter(ClassMemberFilters.ALL));
+        assertEquals(CLASSES.length, resolved.getAndSet(0));
+        assertNotEquals(csv, all);
+    }
+
+    @Test
+    public void testFanOutSkipsUnresolved() throws Exception {
+        IClassHolder classes = ClassHolderFactory.classNames(new String[]{"java.lang.Object"});
+        IClassFormatter[] formatters = {
+            new CSVDetailFormatter(ClassMemberFilters.VISIBLE),
+            new PscoutFormatter(ClassMemberFilters.VISIBLE)};
+        Analyzer.setResolver(countingResolver());
+        Analyzer.setCache(new OutputCache(tmp.newFolder().getPath(), OutputCache.DEFAULT_MAX_BYTES));
+        //only the first formatter has cached output
+        assertNotEquals(formatters[0].header(), printToString(classes, formatters[0]));
+
+        unavailable = true;
+        for (Pipeline pipeline : new Pipeline[]{null, new Pipeline(2, 2)}) {
+            Analyzer.setPipeline(pipeline);
+            LinkedHashMap<IClassFormatter, IPrinter> outputs = new LinkedHashMap<>();
+            StringPrinter[] actual = new StringPrinter[formatters.length];
+            for (int i = 0; i < formatters.length; i++) {
+                actual[i] = new StringPrinter();
+                outputs.put(formatters[i], actual[i]);
+            }
+            Analyzer.print(classes, outputs);
+            //a class that cannot be resolved is skipped by all formatters
+            for (int i = 0; i < formatters.length; i++) {
+                assertEquals(formatters[i].header(), actual[i].toString());
+            }
+        }
+    }
+
+    @Test
+    public void testSizeLimit() throws Exception {
+        IClassHolder classes = ClassHolderFactory.classNames(CLASSES);
+        IClassFormatter formatter = new CSVDetailFormatter(ClassMemberFilters.VISIBLE);
+        Analyzer.setResolver(countingResolver());
+        Path unbounded = tmp.newFolder().toPath();
+        Analyzer.setCache(new OutputCache(unbounded.toString(), OutputCache.DEFAULT_MAX_BYTES));
+        String expected = printToString(classes, formatter);
+        long total = size(unbounded);
+
+        Path bounded = tmp.newFolder().toPath();
+        Analyzer.setCache(new OutputCache(bounded.toString(), total / 2));
+        assertEquals(expected, printToString(classes, formatter));
+        assertTrue(size(bounded) <= total / 2);
+        resolved.set(0);
+
+        //evicted classes are resolved again
+        assertEquals(expected, printToString(classes, formatter));
+        assertTrue(resolved.get() > 1);
+    }
+
+    private static long size(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+    private IClassResolver countingResolver() {
+        return new IClassResolver() {
+            @Override
+            public void setClasspath(List<String> paths) {
+                SootSceneResolver.INST.setClasspath(paths);
+            }
+
+            @Override
+            public SootClass resolve(String className) {
+                resolved.incrementAndGet();
+                return unavailable ? null : SootSceneResolver.INST.resolve(className);
+            }
+
+            @Override
+            public String name() {
+                return "COUNTING";
+            }
+        };
+    }
+
+    private static String printToString(IClassHolder classes, IClassFormatter formatter) {
+        StringPrinter printer = new StringPrinter();
+        Analyzer.print(classes, formatter, printer);
+        return printer.toString();
+    }
+}
@@ -0,0 +1,203 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import jla.analyzer.ClassHolderFactory;
+import jla.analyzer.IClassHolder;
+import jla.filter.ClassMemberFilters;
+import jla.format.IClassFormatter;
+import jla.format.impl.CSVDetailFormatter;
+import jla.format.impl.CSVFormatter;
+import jla.format.impl.ClassOnlyFormatter;
+import jla.format.impl.PscoutFormatter;
+import jla.print.IPrinter;
+import jla.print.StringPrinter;
+import jla.resolve.IClassResolver;
+import jla.resolve.SootSceneResolver;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Test;
+import soot.SootClass;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class PipelineTest {
+
+    private static final String CLASS_LIST = "target/test-classes/DaCapoUsedClassList.txt";
+
+    @After
+    public void tearDown() {
+        Analyzer.setPipeline(null);
+        Analyzer.setResolver(SootSceneResolver.INST);
+    }
+
+    @Test
+    public void testSameAsSequential() {
+        IClassHolder classes = ClassHolderFactory.readClassNamesFromFile(CLASS_LIST);
+        IClassFormatter formatter = new CSVDetailFormatter(ClassMemberFilters.VISIBLE);
+
+        Analyzer.setPipeline(null);
+        //NOTE: with assertions enabled, Soot fails the first lookup of a few
+        //  of these classes but finds them the next time so resolve them all
+        //  once before comparing (otherwise this depends on the test order)
+        printToString(classes, formatter);
+        String expected = printToString(classes, formatter);
+
+        Analyzer.setPipeline(new Pipeline(4, 8));
+        String actual = printToString(classes, formatter);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testSingleElementQueue() {
+        IClassHolder classes = ClassHolderFactory.classNames(new String[]{"java.nio.ByteBuffer", "not.a.RealClass", "java.nio.IntBuffer"});
+        IClassFormatter formatter = new CSVDetailFormatter(ClassMemberFilters.VISIBLE);
+
+        Analyzer.setPipeline(null);
+        String expected = printToString(classes, formatter);
+
+        Analyzer.setPipeline(new Pipeline(3, 1));
+        String actual = printToString(classes, formatter);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFormatterExceptionPropagates() {
+        IClassHolder classes = ClassHolderFactory.classNames(new String[]{"java.nio.ByteBuffer"});
+        IClassFormatter formatter = new IClassFormatter() {
+            @Override
+            public String header() {
+                return "";
+            }
+
+            @Override
+            public String format(SootClass clazz) {
+                throw new IllegalStateException(clazz.getName());
+            }
+
+            @Override
+            public String recommendedFilenameSuffix() {
+                return "";
+            }
+
+            @Override
+            public String recommendedFileExtension() {
+                return ".txt";
+            }
+        };
+        Analyzer.setPipeline(new Pipeline(2, 2));
+        printToString(classes, formatter);
+    }
+
+    @Test
+    public void testFanOut() {
+        IClassHolder classes = ClassHolderFactory.classNames(new String[]{
+            "java.util.TreeMap", "not.a.RealClass", "java.lang.Thread$State", "java.nio.ByteBuffer", "java.lang.Runnable"});
+        IClassFormatter[] formatters = {
+            new PscoutFormatter(ClassMemberFilters.VISIBLE),
+            new CSVFormatter(),
+            new CSVDetailFormatter(ClassMemberFilters.ALL),
+            new ClassOnlyFormatter(ClassMemberFilters.VISIBLE),};
+        String[] expected = new String[formatters.length];
+        for (int i = 0; i < formatters.length; i++) {
+            expected[i] = printToString(classes, formatters[i]);
+            assertFalse(expected[i].isEmpty());
+        }
+
+        AtomicInteger resolved = new AtomicInteger();
+        Analyzer.setResolver(new IClassResolver() {
+            @Override
+            public void setClasspath(List<String> paths) {
+                SootSceneResolver.INST.setClasspath(paths);
+            }
+
+            @Override
+            public SootClass resolve(String className) {
+                resolved.incrementAndGet();
+                return SootSceneResolver.INST.resolve(className);
+            }
+
+            @Override
+            public String name() {
+                return "COUNTING";
+            }
+        });
+        for (Pipeline pipeline : new Pipeline[]{null, new Pipeline(4, 3)}) {
+            Analyzer.setPipeline(pipeline);
+            resolved.set(0);
+            LinkedHashMap<IClassFormatter, IPrinter> outputs = new LinkedHashMap<>();
+            StringPrinter[] actual = new StringPrinter[formatters.length];
+            for (int i = 0; i < formatters.length; i++) {
+                actual[i] = new StringPrinter();
+                outputs.put(formatters[i], actual[i]);
+            }
+            Analyzer.print(classes, outputs);
+            //each class is resolved once for all formatters
+            assertEquals(5, resolved.get());
+            for (int i = 0; i < formatters.length; i++) {
+                assertEquals(expected[i], actual[i].toString());
+            }
+        }
+    }
+
+    @Test
+    public void testMaxClasses() {
+        IClassHolder classes = ClassHolderFactory.classNames(new String[]{
+            "java.util.TreeMap", "java.util.BitSet", "java.lang.Thread", "java.util.ArrayList", "java.nio.ByteBuffer",
+            "java.util.HashMap", "java.io.File", "java.util.LinkedList", "java.lang.String", "java.util.Formatter"});
+        IClassFormatter formatter = new CSVDetailFormatter(ClassMemberFilters.ALL);
+        Analyzer.setPipeline(null);
+        String expected = printToString(classes, formatter);
+        SootSceneResolver.setMaxClasses(200);
+        try {
+            assertEquals(expected, printToString(classes, formatter));
+            long rebuilds = SootSceneResolver.rebuilds();
+            for (int queueCapacity : new int[]{1, 8}) {
+                Analyzer.setPipeline(new Pipeline(4, queueCapacity));
+                assertEquals(expected, printToString(classes, formatter));
+            }
+            //the Scene was released while the Pipeline ran
+            assertTrue(SootSceneResolver.rebuilds() > rebuilds);
+        } finally {
+            SootSceneResolver.setMaxClasses(0);
+        }
+    }
+
+    private static String printToString(IClassHolder classes, IClassFormatter formatter) {
+        StringPrinter printer = new StringPrinter();
+        Analyzer.print(classes, formatter, printer);
+        return printer.toString();
+    }
+}
@@ -0,0 +1,180 @@
+package jla.main;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import jla.analyzer.ClassHolderFactory;
+import jla.filter.ClassMemberFilters;
+import jla.format.impl.CSVFormatter;
+import jla.print.StringPrinter;
+import jla.resolve.ClassFileResolver;
+import jla.resolve.SootSceneResolver;
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class ServerTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testRequests() throws Exception {
+        Server server = new Server(0);
+        Thread t = startServer(server);
+        try {
+            String[] classes = {"java.lang.Object", "java.util.ArrayList"};
+            StringPrinter printer = new StringPrinter();
+            Analyzer.setClasspath(null);
+            Analyzer.print(ClassHolderFactory.classNames(classes), Analyzer.OutputType.MEMBER_CSV_DETAIL, ClassMemberFilters.VISIBLE, printer);
+            String expected = "OK\n" + printer;
+            String request = "classes MEMBER_CSV_DETAIL VISIBLE\njava.lang.Object\njava.util.ArrayList\n\n";
+            assertEquals(expected, send(server.port(), request));
+            //the same request again is answered from the warm Scene
+            assertEquals(expected, send(server.port(), request));
+
+            assertTrue(send(server.port(), "classes NOT_A_TYPE VISIBLE\n").startsWith("ERROR "));
+            assertTrue(send(server.port(), "jar MEMBER_CSV VISIBLE\n").startsWith("ERROR "));
+            assertEquals("OK\n", send(server.port(), "shutdown\n"));
+            t.join(10000);
+            assertFalse(t.isAlive());
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testClassesWithClasspath() throws Exception {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeNotNull(javac);
+        //the explicit classpath must also contain the JDK classes
+        Assume.assumeFalse(ClassHolderFactory.Path.BOOT.isEmpty());
+        //the same class name with different members on two classpaths
+        File first = compile(javac, "first", "package p; public class C { public void first() {} }");
+        File second = compile(javac, "second", "package p; public class C { public void second() {} }");
+        StringBuilder boot = new StringBuilder();
+        for (String path : ClassHolderFactory.Path.BOOT) {
+            boot.append("classpath ").append(path).append('\n');
+        }
+        Server server = new Server(0);
+        Thread t = startServer(server);
+        try {
+            String request = "classes MEMBER_CSV VISIBLE\njava.lang.Object\n\n";
+            String found = send(server.port(), request);
+            assertTrue(found, found.contains("java.lang.Object"));
+            String a = send(server.port(), "classes MEMBER_CSV VISIBLE\nclasspath " + first + '\n' + boot + "p.C\n\n");
+            assertTrue(a, a.contains("first") && !a.contains("second"));
+            //the class left in the Scene by the previous request is not reused
+            String b = send(server.port(), "classes MEMBER_CSV VISIBLE\nclasspath " + second + '\n' + boot + "p.C\n\n");
+            assertTrue(b, b.contains("second") && !b.contains("first"));
+            //the next request without a classpath uses the default again
+            assertEquals(found, send(server.port(), request));
+            assertEquals("OK\n", send(server.port(), "shutdown\n"));
+            t.join(10000);
+        } finally {
+            server.close();
+            Analyzer.setClasspath(null);
+        }
+    }
+
+    /**
+     * @return the directory containing the compiled class
+     */
+    private File compile(JavaCompiler javac, String name, String source) throws IOException {
+        File src = new File(tmp.newFolder(name + "-src"), "C.java");
+        Files.write(src.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        File out = tmp.newFolder(name);
+        assertEquals(0, javac.run(null, null, null, "-d", out.getPath(), src.getPath()));
+        return out;
+    }
+
+    @Test
+    public void testVisibleClassesOnlyPerRequest() throws Exception {
+        File dir = tmp.newFolder("classes");
+        String hidden = "jla/analyzer/DirectoryClassIterator.class";
+        File copy = new File(dir, hidden);
+        copy.getParentFile().mkdirs();
+        try (InputStream in = ServerTest.class.getClassLoader().getResourceAsStream(hidden)) {
+            Files.copy(in, copy.toPath());
+        }
+        Analyzer.setResolver(ClassFileResolver.INST);
+        Server server = new Server(0);
+        Thread t = startServer(server);
+        try {
+            String all = send(server.port(), "classpath MEMBER_CSV ALL\n" + dir.getPath() + "\n\n");
+            assertTrue(all, all.contains("jla.analyzer.DirectoryClassIterator"));
+            String visible = send(server.port(), "classpath MEMBER_CSV VISIBLE\n" + dir.getPath() + "\n\n");
+            assertEquals("OK\n" + new CSVFormatter().header(), visible);
+            assertEquals("OK\n", send(server.port(), "shutdown\n"));
+            t.join(10000);
+        } finally {
+            server.close();
+            Analyzer.setResolver(SootSceneResolver.INST);
+        }
+    }
+
+    /**
+     * @return the started thread that runs the given server
+     */
+    private static Thread startServer(Server server) {
+        Thread t = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        t.start();
+        return t;
+    }
+
+    private static String send(int port, String request) throws IOException {
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            s.getOutputStream().write(request.getBytes(StandardCharsets.UTF_8));
+            s.getOutputStream().flush();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            InputStream in = s.getInputStream();
+            byte[] buf = new byte[8192];
+            for (int n; (n = in.read(buf)) > 0;) {
+                bytes.write(buf, 0, n);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package jla.print;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Set;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class AsyncFilePrinterTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testSameAsFilePrinter() throws IOException {
+        String[] parts = new String[1000];
+        for (int i = 0; i < parts.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < i % 37; j++) {
+                sb.append((char) ('a' + (i + j) % 26));
+            }
+            parts[i] = sb.append("é\n").toString();
+        }
+        File expected = tmp.newFile("expected.txt");
+        print(new FilePrinter(expected.getPath()), parts);
+
+        //buffer sizes smaller than, equal to, and larger than the Strings
+        for (int size : new int[]{1, 7, 37, 4096, AsyncFilePrinter.DEFAULT_BUFFER_SIZE}) {
+            File actual = tmp.newFile("actual" + size + ".txt");
+            print(new AsyncFilePrinter(actual.getPath(), size), parts);
+            assertArrayEquals("size " + size, Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+        }
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        File f = tmp.newFile("out.txt");
+        AsyncFilePrinter p = new AsyncFilePrinter(f.getPath(), 4);
+        print(p, "first");
+        print(p, "second", " run");
+        assertEquals("second run", new String(Files.readAllBytes(f.toPath()), Charset.defaultCharset()));
+        try {
+            p.print("closed");
+            fail("print after close");
+        } catch (RuntimeException ex) {
+            //expected
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testBadPath() throws IOException {
+        new AsyncFilePrinter(new File(tmp.newFolder(), "no/such/dir/out.txt").getPath()).open();
+    }
+
+    @Test(timeout = 10000)
+    @SuppressWarnings("deprecation")
+    public void testWriterThreadDies() throws Exception {
+        AsyncFilePrinter p = new AsyncFilePrinter(tmp.newFile("out.txt").getPath(), 4);
+        //NOTE: writer threads of other printers may still be running
+        Set<Thread> before = Thread.getAllStackTraces().keySet();
+        p.open();
+        Thread writer = null;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("jla-writer-") && !before.contains(t)) {
+                writer = t;
+            }
+        }
+        assertNotNull(writer);
+        //an Error (ThreadDeath) thrown on the writer thread
+        writer.stop();
+        writer.join();
+        try {
+            for (int i = 0; i < 100; i++) {
+                p.print("more than two buffers");
+            }
+            fail("print after the writer thread died");
+        } catch (RuntimeException ex) {
+            //expected
+        }
+        try {
+            p.close();
+        } catch (RuntimeException ex) {
+            //expected
+        }
+    }
+
+    private static void print(IPrinter p, String... parts) {
+        p.open();
+        try {
+            for (String s : parts) {
+                p.print(s);
+            }
+        } finally {
+            p.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package jla.print;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class ChannelFilePrinterTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testEncoding() throws IOException {
+        //ASCII, 2-byte, 3-byte, surrogate pairs (split across Strings), and
+        //  unpaired surrogates
+        String[] parts = {"java.lang.Object", "\n", "é ü", "€￿", "😀", "x\uD83D", "\uDE00y",
+            "\uD83D", "z", "\uDE00", "\uD83D", "😀", "", "end\uD83D"};
+        check(parts);
+
+        Random r = new Random(42);
+        final char[] alphabet = {'a', 'Z', '"', ',', '\n', 'é', 'ࠀ', '�', '\uD800', '\uDBFF', '\uDC00', '\uDFFF'};
+        String[] random = new String[2000];
+        for (int i = 0; i < random.length; i++) {
+            char[] chars = new char[r.nextInt(50)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[r.nextInt(alphabet.length)];
+            }
+            random[i] = new String(chars);
+        }
+        check(random);
+    }
+
+    private void check(String... parts) throws IOException {
+        StringBuilder all = new StringBuilder();
+        for (String s : parts) {
+            all.append(s);
+        }
+        byte[] expected = all.toString().getBytes(StandardCharsets.UTF_8);
+        for (int size : new int[]{4, 5, 7, 64, ChannelFilePrinter.DEFAULT_BUFFER_SIZE}) {
+            File f = tmp.newFile();
+            IPrinter p = new ChannelFilePrinter(f.getPath(), size);
+            p.open();
+            for (String s : parts) {
+                p.print(s);
+            }
+            p.close();
+            assertArrayEquals("size " + size, expected, Files.readAllBytes(f.toPath()));
+        }
+    }
+}
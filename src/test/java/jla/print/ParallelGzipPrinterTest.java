@@ -0,0 +1,87 @@
+package jla.print;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class ParallelGzipPrinterTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testOrderPreserved() throws IOException {
+        StringBuilder all = new StringBuilder();
+        String[] parts = new String[5000];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = "\"java.lang.C" + i + "\",\"void m" + (i * 31 % 977) + "(int,é)\"\n";
+            all.append(parts[i]);
+        }
+        byte[] expected = all.toString().getBytes(StandardCharsets.UTF_8);
+        for (int blockSize : new int[]{4, 1000, ParallelGzipPrinter.DEFAULT_BLOCK_SIZE}) {
+            File f = tmp.newFile();
+            IPrinter p = new ParallelGzipPrinter(f.getPath(), blockSize, 3, Deflater.BEST_SPEED);
+            p.open();
+            for (String s : parts) {
+                p.print(s);
+            }
+            p.close();
+            assertArrayEquals("block size " + blockSize, expected, gunzip(f));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        File f = tmp.newFile();
+        IPrinter p = new ParallelGzipPrinter(f.getPath());
+        p.open();
+        p.close();
+        assertEquals(0, gunzip(f).length);
+    }
+
+    private static byte[] gunzip(File f) throws IOException {
+        try (InputStream in = new GZIPInputStream(new FileInputStream(f))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            for (int n; (n = in.read(buf)) > 0;) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+}
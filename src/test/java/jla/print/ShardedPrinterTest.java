@@ -0,0 +1,163 @@
+package jla.print;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class ShardedPrinterTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testPackageShards() throws IOException {
+        //more packages than open files forces shards to be closed and reopened
+        for (int maxOpen : new int[]{1, 3, ShardedPrinter.DEFAULT_MAX_OPEN}) {
+            File f = new File(tmp.newFolder(), "out.csv");
+            ShardedPrinter p = new ShardedPrinter(f.getPath(), ShardedPrinter.PACKAGE, maxOpen, 1 + maxOpen / 2);
+            Map<String, StringBuilder> expected = new HashMap<>();
+            p.open();
+            p.print("header\n");
+            for (int i = 0; i < 500; i++) {
+                String pkg = (i % 7 == 0) ? null : "p" + (i * 31 % 11);
+                String className = pkg == null ? "C" + i : pkg + ".C" + i;
+                String line = className + '\n';
+                p.print(className, line);
+                expected.computeIfAbsent(pkg == null ? ShardedPrinter.DEFAULT_PACKAGE : pkg,
+                        k -> new StringBuilder("header\n")).append(line);
+            }
+            p.close();
+
+            File dir = new File(f.getParentFile(), "out");
+            assertEquals(dir, p.directory());
+            assertEquals(expected.size(), dir.list().length);
+            for (Map.Entry<String, StringBuilder> e : expected.entrySet()) {
+                File shard = new File(dir, e.getKey() + ".csv");
+                assertEquals("maxOpen " + maxOpen, e.getValue().toString(),
+                        new String(Files.readAllBytes(shard.toPath()), Charset.defaultCharset()));
+            }
+        }
+    }
+
+    @Test
+    public void testSourceKey() {
+        Map<String, String> sources = new HashMap<>();
+        sources.put("a.A", "/x/lib/rt.jar");
+        sources.put("b.B", "C:\\x\\lib\\Other.ZIP");
+        sources.put("c.C", "/x/target/classes/");
+        sources.put("d.D", "java.base");
+        ShardedPrinter.Key key = ShardedPrinter.bySource(sources::get);
+        assertEquals("rt", key.shardOf("a.A"));
+        assertEquals("Other", key.shardOf("b.B"));
+        assertEquals("classes", key.shardOf("c.C"));
+        assertEquals("java.base", key.shardOf("d.D"));
+        assertEquals(ShardedPrinter.UNKNOWN_SOURCE, key.shardOf("e.E"));
+    }
+
+    @Test
+    public void testKeysWithSameFileName() throws IOException {
+        Map<String, String> sources = new HashMap<>();
+        sources.put("a.A", "/x/my lib.jar");
+        sources.put("b.B", "/x/my_lib.jar");
+        File f = new File(tmp.newFolder(), "out.csv");
+        //many writers so the two keys would likely hash to different ones
+        ShardedPrinter p = new ShardedPrinter(f.getPath(), ShardedPrinter.bySource(sources::get), 8, 8);
+        p.open();
+        p.print("header\n");
+        for (int i = 0; i < 100; i++) {
+            p.print("a.A", "a.A\n");
+            p.print("b.B", "b.B\n");
+        }
+        p.close();
+        StringBuilder expected = new StringBuilder("header\n");
+        for (int i = 0; i < 100; i++) {
+            expected.append("a.A\nb.B\n");
+        }
+        File dir = p.directory();
+        assertEquals(1, dir.list().length);
+        assertEquals(expected.toString(), new String(Files.readAllBytes(new File(dir, "my_lib.csv").toPath()), Charset.defaultCharset()));
+    }
+
+    @Test(timeout = 10000)
+    @SuppressWarnings("deprecation")
+    public void testWriterThreadDies() throws Exception {
+        ShardedPrinter p = new ShardedPrinter(new File(tmp.newFolder(), "out.csv").getPath(), ShardedPrinter.PACKAGE, 1, 1);
+        Set<Thread> before = Thread.getAllStackTraces().keySet();
+        p.open();
+        Thread writer = null;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("jla-shard-") && !before.contains(t)) {
+                writer = t;
+            }
+        }
+        assertNotNull(writer);
+        //an Error (ThreadDeath) thrown on the writer thread
+        writer.stop();
+        writer.join();
+        try {
+            //more than fit in the queue of the writer
+            for (int i = 0; i < 5000; i++) {
+                p.print("a.A", "a.A\n");
+            }
+            fail("print after the writer thread died");
+        } catch (RuntimeException ex) {
+            //expected
+        }
+        try {
+            p.close();
+            fail("close after the writer thread died");
+        } catch (RuntimeException ex) {
+            //expected
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testHeaderAfterClass() throws IOException {
+        ShardedPrinter p = new ShardedPrinter(new File(tmp.newFolder(), "out.csv").getPath(), ShardedPrinter.PACKAGE);
+        p.open();
+        try {
+            p.print("a.A", "a.A\n");
+            p.print("late header\n");
+        } finally {
+            p.close();
+        }
+    }
+}
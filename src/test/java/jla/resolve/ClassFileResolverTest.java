@@ -0,0 +1,74 @@
+package jla.resolve;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import jla.filter.ClassMemberFilters;
+import jla.format.IClassFormatter;
+import jla.format.impl.CSVDetailFormatter;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import soot.SootClass;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class ClassFileResolverTest {
+
+    private static final String[] CLASSES = {
+        "java.lang.String",
+        "java.util.HashMap",
+        "java.util.Map$Entry",
+        "java.lang.Thread$State",
+        "java.nio.ByteBuffer",
+        "java.lang.annotation.Retention",
+        "java.util.concurrent.ConcurrentHashMap",
+    };
+
+    @Test
+    public void testSameAsScene() {
+        IClassFormatter formatter = new CSVDetailFormatter(ClassMemberFilters.ALL);
+        for (String name : CLASSES) {
+            SootClass expected = SootSceneResolver.INST.resolve(name);
+            SootClass actual = ClassFileResolver.INST.resolve(name);
+            assertEquals(name, expected.getModifiers(), actual.getModifiers());
+            assertEquals(name, formatter.format(expected), formatter.format(actual));
+        }
+    }
+
+    @Test
+    public void testSceneUnchanged() {
+        SootClass clazz = ClassFileResolver.INST.resolve("java.util.BitSet");
+        assertFalse(SootSceneResolver.scene().containsClass("java.util.BitSet"));
+        assertNotSame(clazz, clazz.getType().getSootClass());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMissingClass() {
+        ClassFileResolver.INST.resolve("not.a.RealClass");
+    }
+}
@@ -0,0 +1,91 @@
+package jla.resolve;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import jla.filter.ClassMemberFilters;
+import jla.format.IClassFormatter;
+import jla.format.impl.CSVDetailFormatter;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import soot.Scene;
+import soot.SootClass;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class SootSceneResolverTest {
+
+    private static final String[] CLASSES = {
+        "java.util.TreeMap",
+        "java.util.TreeMap$Entry",
+        "java.util.concurrent.ThreadPoolExecutor",
+        "java.text.SimpleDateFormat",
+        "java.io.ObjectInputStream",
+    };
+
+    @Test
+    public void testSignaturesSameAsFull() {
+        IClassFormatter formatter = new CSVDetailFormatter(ClassMemberFilters.ALL);
+        for (String name : CLASSES) {
+            SootClass signatures = SootSceneResolver.SIGNATURES.resolve(name);
+            assertTrue(name, signatures.resolvingLevel() >= SootClass.SIGNATURES);
+            //format first since the full load brings the same SootClass to
+            //  the BODIES level
+            String expected = formatter.format(signatures);
+            int modifiers = signatures.getModifiers();
+            SootClass full = SootSceneResolver.INST.resolve(name);
+            assertEquals(name, modifiers, full.getModifiers());
+            assertEquals(name, expected, formatter.format(full));
+        }
+    }
+
+    @Test
+    public void testMaxClasses() {
+        IClassFormatter formatter = new CSVDetailFormatter(ClassMemberFilters.ALL);
+        SootSceneResolver.setMaxClasses(1);
+        try {
+            SootSceneResolver.INST.resolve("java.util.BitSet");
+            for (String name : CLASSES) {
+                Scene before = SootSceneResolver.scene();
+                long rebuilds = SootSceneResolver.rebuilds();
+                assertTrue(SootSceneResolver.INST.isFull());
+                SootSceneResolver.INST.release();
+                SootClass clazz = SootSceneResolver.INST.resolve(name);
+                //the Scene always holds more than one class so it is rebuilt
+                //  before each class and only holds the class and its support
+                assertEquals(rebuilds + 1, SootSceneResolver.rebuilds());
+                assertNotSame(before, SootSceneResolver.scene());
+                assertTrue(SootSceneResolver.scene().containsClass(name));
+                assertFalse(SootSceneResolver.scene().containsClass("java.util.BitSet"));
+                assertEquals(name, formatter.format(ClassFileResolver.INST.resolve(name)), formatter.format(clazz));
+            }
+        } finally {
+            SootSceneResolver.setMaxClasses(0);
+        }
+        assertFalse(SootSceneResolver.INST.isFull());
+    }
+}
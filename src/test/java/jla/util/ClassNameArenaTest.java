@@ -0,0 +1,106 @@
+package jla.util;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class ClassNameArenaTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() {
+        List<String> expected = Arrays.asList("java.lang.String", "java.lang.Object", "Default", "java.util.Map$Entry",
+                "java.lang.Integer", "", "a.", ".b", "été.Ça", "été.x", "java.lang.reflect.Field");
+        ClassNameArena arena = new ClassNameArena(2);
+        for (String name : expected) {
+            arena.append(name);
+        }
+        assertEquals(expected, arena);
+        //default, java.lang, java.util, a, <empty>, été, java.lang.reflect
+        assertEquals(7, arena.packageCount());
+        arena.trimToSize();
+        assertEquals(expected, arena);
+        arena.append("java.lang.Long");
+        assertEquals("java.lang.Long", arena.get(expected.size()));
+        assertEquals(7, arena.packageCount());
+    }
+
+    @Test
+    public void testRandom() {
+        Random r = new Random(19);
+        String[] packages = new String[300];
+        for (int i = 0; i < packages.length; i++) {
+            packages[i] = "p" + r.nextInt(50) + ".q" + i + (r.nextInt(20) == 0 ? "é" : "");
+        }
+        List<String> expected = new ArrayList<>();
+        ClassNameArena arena = new ClassNameArena();
+        for (int i = 0; i < 20000; i++) {
+            String name = packages[r.nextInt(packages.length)] + ".C" + r.nextInt(1000);
+            expected.add(name);
+            arena.append(name);
+        }
+        assertEquals(expected, arena);
+        assertEquals(packages.length + 1, arena.packageCount());
+        assertEquals(expected, StreamSupport.stream(arena.spliterator(), true).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testZipEntries() throws IOException {
+        File zip = tmp.newFile("test.jar");
+        List<String> expected = Arrays.asList("a.b.C", "a.b.D", "E", "a.été.F");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            for (String name : expected) {
+                out.putNextEntry(new ZipEntry(name.replace('.', '/') + ".class"));
+            }
+        }
+        ClassNameArena arena = new ClassNameArena();
+        try (ZipCentralDirectory cd = ZipCentralDirectory.open(zip.toPath())) {
+            for (ZipCentralDirectory.Cursor c = cd.cursor(); c.next();) {
+                arena.append(c, c.nameLength() - ".class".length());
+            }
+        }
+        assertEquals(expected, arena);
+        assertEquals(3, arena.packageCount());
+    }
+}
@@ -0,0 +1,115 @@
+package jla.util;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class MappedLineFileTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static List<String> toList(Iterable<String> lines) {
+        List<String> retVal = new ArrayList<>();
+        for (String line : lines) {
+            retVal.add(line);
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testLines() throws IOException {
+        File f = tmp.newFile("names.txt");
+        Files.write(f.toPath(), "\uFEFF# comment\njava.lang.String\r\n\n   \n  java.util.List  \n\t# indented comment\n\u00e9t\u00e9.\u00c7a\nlast"
+                .getBytes(StandardCharsets.UTF_8));
+        List<String> expected = Arrays.asList("java.lang.String", "java.util.List", "\u00e9t\u00e9.\u00c7a", "last");
+        MappedLineFile lines = new MappedLineFile(f.toPath());
+        assertEquals(expected, toList(lines));
+        //every iterator reads the file again
+        assertEquals(expected, toList(lines));
+        //windows smaller than a line
+        for (int window = 1; window < 20; window++) {
+            assertEquals(expected, toList(new MappedLineFile(f.toPath(), window)));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        File f = tmp.newFile("empty.txt");
+        assertFalse(new MappedLineFile(f.toPath()).iterator().hasNext());
+        Files.write(f.toPath(), "\n\n# only comments\n".getBytes(StandardCharsets.UTF_8));
+        assertFalse(new MappedLineFile(f.toPath()).iterator().hasNext());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testMissing() {
+        new MappedLineFile(new File(tmp.getRoot(), "missing.txt").toPath()).iterator().hasNext();
+    }
+
+    @Test
+    public void testRandom() throws IOException {
+        Random r = new Random(20);
+        String alphabet = "ab.$\u00e9 #\t";
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            int len = r.nextInt(r.nextInt(10) == 0 ? 300 : 30);
+            for (int j = 0; j < len; j++) {
+                text.append(alphabet.charAt(r.nextInt(alphabet.length())));
+            }
+            text.append(r.nextBoolean() ? "\n" : "\r\n");
+        }
+        File f = tmp.newFile("random.txt");
+        Files.write(f.toPath(), text.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<String> expected = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    expected.add(line);
+                }
+            }
+        }
+        assertEquals(expected, toList(new MappedLineFile(f.toPath())));
+        assertEquals(expected, toList(new MappedLineFile(f.toPath(), 64)));
+        assertEquals(expected, toList(new MappedLineFile(f.toPath(), 4096)));
+    }
+}
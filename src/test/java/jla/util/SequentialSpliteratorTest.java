@@ -0,0 +1,114 @@
+package jla.util;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class SequentialSpliteratorTest {
+
+    private static List<List<Integer>> sources(int... sizes) {
+        List<List<Integer>> retVal = new ArrayList<>();
+        int n = 0;
+        for (int size : sizes) {
+            List<Integer> source = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                source.add(n++);
+            }
+            retVal.add(source);
+        }
+        return retVal;
+    }
+
+    private static SequentialSpliterator<List<Integer>, Integer> spliterator(List<List<Integer>> sources, AtomicInteger opened) {
+        return new SequentialSpliterator<>(sources, s -> {
+            opened.incrementAndGet();
+            return s.spliterator();
+        }, List::size, Spliterator.ORDERED | Spliterator.SIZED);
+    }
+
+    @Test
+    public void testLazy() {
+        AtomicInteger opened = new AtomicInteger();
+        SequentialSpliterator<List<Integer>, Integer> s = spliterator(sources(2, 0, 3), opened);
+        assertEquals(5, s.estimateSize());
+        assertEquals(0, s.characteristics() & Spliterator.SIZED);
+        assertEquals(0, opened.get());
+        List<Integer> seen = new ArrayList<>();
+        assertTrue(s.tryAdvance(seen::add));
+        assertEquals(1, opened.get());
+        assertEquals(4, s.estimateSize());
+        s.forEachRemaining(seen::add);
+        assertEquals(3, opened.get());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), seen);
+        assertFalse(s.tryAdvance(seen::add));
+    }
+
+    @Test
+    public void testSplit() {
+        AtomicInteger opened = new AtomicInteger();
+        SequentialSpliterator<List<Integer>, Integer> s = spliterator(sources(4, 4), opened);
+        //first by source
+        Spliterator<Integer> prefix = s.trySplit();
+        assertEquals(0, opened.get());
+        assertEquals(4, prefix.estimateSize());
+        assertEquals(4, s.estimateSize());
+        //then within the single remaining source
+        Spliterator<Integer> chunk = s.trySplit();
+        assertEquals(1, opened.get());
+        List<Integer> seen = new ArrayList<>();
+        prefix.forEachRemaining(seen::add);
+        chunk.forEachRemaining(seen::add);
+        s.forEachRemaining(seen::add);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7), seen);
+    }
+
+    @Test
+    public void testParallelStream() {
+        int[] sizes = new int[50];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = (i * 37) % 200;
+        }
+        List<List<Integer>> sources = sources(sizes);
+        int total = IntStream.of(sizes).sum();
+        AtomicInteger opened = new AtomicInteger();
+        List<Integer> seen = StreamSupport.stream(spliterator(sources, opened), true).collect(Collectors.toList());
+        assertEquals(IntStream.range(0, total).boxed().collect(Collectors.toList()), seen);
+        assertEquals(sources.size(), opened.get());
+    }
+}
@@ -0,0 +1,112 @@
+package jla.util;
+
+/*-
+ * #%L
+ * JavaLibraryAnalysis
+ * %%
+ * Copyright (C) 2020 Timothy Hoffman
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Timothy Hoffman
+ */
+public class ZipCentralDirectoryTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testEntries() throws IOException {
+        File zip = tmp.newFile("test.jar");
+        byte[] stored = "stored content".getBytes(StandardCharsets.UTF_8);
+        byte[] deflated = new byte[10000];
+        Arrays.fill(deflated, (byte) 'x');
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("a/"));
+            out.putNextEntry(new ZipEntry("a/B.class"));
+            out.write(deflated);
+            ZipEntry e = new ZipEntry("a/été.class");
+            e.setMethod(ZipEntry.STORED);
+            e.setSize(stored.length);
+            CRC32 crc = new CRC32();
+            crc.update(stored);
+            e.setCrc(crc.getValue());
+            out.putNextEntry(e);
+            out.write(stored);
+            out.setComment("a comment");
+        }
+
+        List<String> names = new ArrayList<>();
+        try (ZipCentralDirectory cd = ZipCentralDirectory.open(zip.toPath())) {
+            assertEquals(3, cd.size());
+            for (ZipCentralDirectory.Cursor c = cd.cursor(); c.next();) {
+                names.add(c.name());
+                if (c.isDirectory()) {
+                    assertFalse(c.nameEndsWith(".class"));
+                } else {
+                    assertTrue(c.nameEndsWith(".class"));
+                    String name = c.name();
+                    assertEquals(name.substring(0, name.length() - 6).replace('/', '.'),
+                            c.name(c.nameLength() - ".class".length(), '.'));
+                    try (InputStream in = c.openStream()) {
+                        byte[] expected = c.method() == ZipEntry.STORED ? stored : deflated;
+                        assertArrayEquals(expected, readAll(in));
+                        assertEquals(expected.length, c.size());
+                    }
+                }
+            }
+        }
+        assertEquals(Arrays.asList("a/", "a/B.class", "a/été.class"), names);
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAZip() throws IOException {
+        File f = tmp.newFile("notazip.jar");
+        try (OutputStream out = new FileOutputStream(f)) {
+            out.write("not a zip file".getBytes(StandardCharsets.UTF_8));
+        }
+        ZipCentralDirectory.open(f.toPath()).close();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        for (int n; (n = in.read(buf)) >= 0;) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+}